@@ -1,7 +1,15 @@
 package com.bytezone.dm3270;
 
 import com.bytezone.dm3270.buffers.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
 import java.nio.charset.UnsupportedCharsetException;
+import java.util.Arrays;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public enum Charset {
   CP1025,
@@ -30,25 +38,200 @@ public enum Charset {
   CP424,
   CP939;
 
+  public static final byte SHIFT_OUT = 0x0E;
+  public static final byte SHIFT_IN = 0x0F;
+  private static final Logger LOG = LoggerFactory.getLogger(Charset.class);
+  // unicode replacement char
+  private static final char UNMAPPED_CHAR = 0xFFFD;
+
   private char[] charsMapping;
+  // (first byte << 8 | second byte) -> char, only for DBCS charsets
+  private char[] dbcsCharsMapping;
+  // char -> byte, split in pages of 256 chars which are only created when they have a mapping
+  private byte[][] bytesMapping;
+  // char -> (first byte << 8 | second byte), 0 when unmapped, only for DBCS charsets
+  private char[] dbcsBytesMapping;
+  private byte replacementByte;
   private java.nio.charset.Charset charset;
 
   public synchronized void load() throws UnsupportedCharsetException  {
     if (charset != null) {
       return;
     }
-    charset = java.nio.charset.Charset.forName(name());
-    byte[] baseBytes = new byte[256];
+    java.nio.charset.Charset loaded;
+    try {
+      loaded = java.nio.charset.Charset.forName(name());
+    } catch (UnsupportedCharsetException e) {
+      // EBCDIC code pages are not part of the minimal runtime
+      LOG.error("Charset {} is not available. Include jdk.charsets module in jlink images, and "
+          + "build native images with -H:+AddAllCharsets", name());
+      throw e;
+    }
+    // each byte is decoded on its own, otherwise DBCS charsets would decode the bytes after
+    // shift out as double byte chars
+    charsMapping = new char[256];
     for (int i = 0; i < 256; i++) {
-      baseBytes[i] = (byte) i;
+      String text = new String(new byte[]{(byte) i}, loaded);
+      charsMapping[i] = text.isEmpty() ? '\u0000' : text.charAt(0);
+    }
+    if (new String(new byte[]{SHIFT_OUT}, loaded).isEmpty()) {
+      dbcsCharsMapping = buildDbcsCharsMapping(loaded);
+    }
+    charset = loaded;
+    loadBytesMapping();
+  }
+
+  private static char[] buildDbcsCharsMapping(java.nio.charset.Charset charset) {
+    char[] ret = new char[0x10000];
+    CharsetDecoder decoder = charset.newDecoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    byte[] bytes = {SHIFT_OUT, 0, 0, SHIFT_IN};
+    ByteBuffer in = ByteBuffer.wrap(bytes);
+    CharBuffer out = CharBuffer.allocate(4);
+    for (int b1 = 0x40; b1 < 0xFF; b1++) {
+      for (int b2 = 0x40; b2 < 0xFF; b2++) {
+        bytes[1] = (byte) b1;
+        bytes[2] = (byte) b2;
+        in.rewind();
+        out.clear();
+        decoder.reset();
+        decoder.decode(in, out, true);
+        decoder.flush(out);
+        ret[b1 << 8 | b2] = out.position() == 1 ? out.get(0) : UNMAPPED_CHAR;
+      }
+    }
+    return ret;
+  }
+
+  private static char[] buildDbcsBytesMapping(char[] dbcsCharsMapping,
+      java.nio.charset.Charset charset) {
+    char[] ret = new char[0x10000];
+    CharsetEncoder encoder = charset.newEncoder();
+    CharBuffer in = CharBuffer.allocate(1);
+    ByteBuffer out = ByteBuffer.allocate(8);
+    for (char c : dbcsCharsMapping) {
+      if (c == '\u0000' || c == UNMAPPED_CHAR || ret[c] != 0) {
+        continue;
+      }
+      in.clear();
+      in.put(0, c);
+      out.clear();
+      encoder.reset();
+      encoder.encode(in, out, true);
+      encoder.flush(out);
+      // use the JDK encoder to choose the code when several codes decode to the same char
+      if (out.position() == 4 && out.get(0) == SHIFT_OUT) {
+        ret[c] = (char) ((out.get(1) & 0xFF) << 8 | (out.get(2) & 0xFF));
+      }
+    }
+    return ret;
+  }
+
+  private void loadBytesMapping() {
+    replacementByte = charset.newEncoder().replacement()[0];
+    if (dbcsCharsMapping != null) {
+      dbcsBytesMapping = buildDbcsBytesMapping(dbcsCharsMapping, charset);
+    }
+    bytesMapping = new byte[256][];
+    for (int i = 0; i < 256; i++) {
+      char c = charsMapping[i];
+      String text = String.valueOf(c);
+      // use the JDK encoder to choose the byte when several bytes decode to the same char
+      byte[] encoded = text.getBytes(charset);
+      if (encoded.length != 1) {
+        continue;
+      }
+      byte[] page = bytesMapping[c >> 8];
+      if (page == null) {
+        page = new byte[256];
+        Arrays.fill(page, replacementByte);
+        bytesMapping[c >> 8] = page;
+      }
+      page[c & 0xFF] = encoded[0];
     }
-    charsMapping = new String(baseBytes, charset).toCharArray();
   }
 
   public char getChar(byte value) {
     return charsMapping[value & 0xFF];
   }
 
+  public boolean isDbcs() {
+    return dbcsCharsMapping != null;
+  }
+
+  /**
+   * Gets the char of a double byte char set (DBCS) code.
+   *
+   * @param b1 first byte of the code.
+   * @param b2 second byte of the code.
+   * @return the decoded char, or the unicode replacement char when the charset is not a DBCS one
+   * or the code has no mapping.
+   */
+  public char getDbcsChar(byte b1, byte b2) {
+    return dbcsCharsMapping != null ? dbcsCharsMapping[(b1 & 0xFF) << 8 | (b2 & 0xFF)]
+        : UNMAPPED_CHAR;
+  }
+
+  public byte getByte(char value) {
+    byte[] page = bytesMapping[value >> 8];
+    return page == null ? replacementByte : page[value & 0xFF];
+  }
+
+  /**
+   * Gets the max number of bytes required to encode a text.
+   *
+   * @param length number of chars of the text.
+   * @return the size of a buffer which can hold any text of the given length encoded with {@link
+   * #encode(CharSequence, byte[], int)}.
+   */
+  public int getMaxEncodedLength(int length) {
+    // a double byte char between single byte ones requires shift out and shift in bytes
+    return dbcsBytesMapping != null ? length * 4 : length;
+  }
+
+  /**
+   * Encodes the given text into the buffer.
+   * <p>
+   * Chars are encoded with one byte when the charset has a single byte mapping for them. In
+   * double byte char sets (DBCS), the rest of chars are encoded with two bytes, and each run of
+   * them is enclosed between shift out and shift in bytes, as {@link
+   * String#getBytes(java.nio.charset.Charset)} does. Chars which have no mapping in the charset are
+   * replaced by the charset replacement byte.
+   *
+   * @param text the text to encode.
+   * @param buffer where to write the encoded bytes. Must have room for {@link
+   * #getMaxEncodedLength(int)} bytes from the offset.
+   * @param offset position in the buffer of the first encoded byte.
+   * @return the position in the buffer after the encoded text.
+   */
+  public int encode(CharSequence text, byte[] buffer, int offset) {
+    boolean shifted = false;
+    for (int i = 0, len = text.length(); i < len; i++) {
+      char c = text.charAt(i);
+      byte value = getByte(c);
+      char code = dbcsBytesMapping != null && getChar(value) != c ? dbcsBytesMapping[c] : 0;
+      if (code != 0) {
+        if (!shifted) {
+          buffer[offset++] = SHIFT_OUT;
+          shifted = true;
+        }
+        buffer[offset++] = (byte) (code >> 8);
+        buffer[offset++] = (byte) code;
+        continue;
+      }
+      if (shifted) {
+        buffer[offset++] = SHIFT_IN;
+        shifted = false;
+      }
+      buffer[offset++] = value;
+    }
+    if (shifted) {
+      buffer[offset++] = SHIFT_IN;
+    }
+    return offset;
+  }
+
   public String getString(byte[] buffer) {
     return new String(buffer, charset);
   }
@@ -70,12 +253,9 @@ public enum Charset {
       StringBuilder textLine = new StringBuilder();
       for (int linePtr = 0; linePtr < Buffer.HEX_LINE_SIZE && ptr + linePtr < max; linePtr++) {
         int val = b[ptr + linePtr] & 0xFF;
-        hexLine.append(String.format("%02X ", val));
-        if (val < 0x40 || val == 0xFF) {
-          textLine.append('.');
-        } else {
-          textLine.append(new String(b, ptr + linePtr, 1, charset));
-        }
+        hexLine.append(Buffer.HEX_DIGITS[val >> 4]).append(Buffer.HEX_DIGITS[val & 0x0F])
+            .append(' ');
+        textLine.append(val < 0x40 || val == 0xFF ? '.' : getChar(b[ptr + linePtr]));
       }
       text.append(String.format("%04X  %-48s %s%n", ptr, hexLine.toString(), textLine.toString()));
     }
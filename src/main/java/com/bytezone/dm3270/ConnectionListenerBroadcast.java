@@ -7,6 +7,11 @@ import java.util.function.Consumer;
 public class ConnectionListenerBroadcast implements ConnectionListener {
 
   private final Set<ConnectionListener> connectionListeners = ConcurrentHashMap.newKeySet();
+  private volatile EventDispatcher eventDispatcher = new EventDispatcher();
+
+  public void setEventDispatcher(EventDispatcher eventDispatcher) {
+    this.eventDispatcher = eventDispatcher;
+  }
 
   public void add(ConnectionListener connectionListener) {
     connectionListeners.add(connectionListener);
@@ -32,6 +37,6 @@ public class ConnectionListenerBroadcast implements ConnectionListener {
   }
   
   private void notify(Consumer<? super ConnectionListener> event) {
-    connectionListeners.forEach(event);
+    eventDispatcher.dispatch(() -> connectionListeners.forEach(event));
   }
 }
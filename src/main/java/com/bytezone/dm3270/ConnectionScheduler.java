@@ -0,0 +1,407 @@
+package com.bytezone.dm3270;
+
+import com.bytezone.dm3270.application.KeyboardStatusChangedEvent;
+import com.bytezone.dm3270.application.KeyboardStatusListener;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Schedules the connection of many terminal clients, to avoid overloading the terminal server (and
+ * the client host) with simultaneous connections and telnet negotiations.
+ * <p>
+ * Connections are started at a max rate (with a token bucket, which allows short bursts), and no
+ * more than a given number of connections are negotiating at the same time (from the start of the
+ * connection until the first unlocked screen). Connections refused by the server, or closed by the
+ * server before the first unlocked screen, are retried after a jittered exponential backoff.
+ * Connection events of retried attempts are not notified to client connection listeners.
+ * <p>
+ * The same scheduler is shared by all the clients to ramp up, either connecting them with
+ * {@link #connect(TerminalClient, String, int)} or setting it in a {@link TerminalClientPool}.
+ */
+public class ConnectionScheduler {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ConnectionScheduler.class);
+
+  private final double connectsPerNano;
+  private final int maxInFlight;
+  private final ScheduledExecutorService executor;
+  private final Deque<Attempt> pendingAttempts = new ArrayDeque<>();
+  private final Map<TerminalClient, Attempt> attempts = new ConcurrentHashMap<>();
+
+  private int burstSize = 1;
+  private volatile int maxRetries = 3;
+  private long initialBackoffMillis = 1000;
+  private long maxBackoffMillis = 30000;
+  private volatile long negotiationTimeoutMillis = 30000;
+
+  private double tokens = 1;
+  private long lastRefillNanos = System.nanoTime();
+  private int inFlight;
+  private ScheduledFuture<?> dispatchTask;
+  private boolean closed;
+
+  /**
+   * Creates a new connection scheduler.
+   *
+   * @param connectsPerSecond max number of connections to start per second.
+   * @param maxInFlight max number of connections negotiating at the same time.
+   */
+  public ConnectionScheduler(double connectsPerSecond, int maxInFlight) {
+    if (connectsPerSecond <= 0 || maxInFlight <= 0) {
+      throw new IllegalArgumentException(
+          "Connection rate and max in flight connections must be greater than 0");
+    }
+    this.connectsPerNano = connectsPerSecond / TimeUnit.SECONDS.toNanos(1);
+    this.maxInFlight = maxInFlight;
+    executor = Executors.newSingleThreadScheduledExecutor(r -> {
+      Thread thread = new Thread(r, "ConnectionScheduler");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Sets the max number of connections which can be started at once after the scheduler has been
+   * idle.
+   *
+   * @param burstSize number of connections. By default 1, which evenly spreads connections.
+   */
+  public synchronized void setBurstSize(int burstSize) {
+    if (burstSize < 1) {
+      throw new IllegalArgumentException("Burst size must be greater than 0");
+    }
+    this.burstSize = burstSize;
+  }
+
+  /**
+   * Sets the max number of times a refused connection is retried.
+   *
+   * @param maxRetries number of retries. By default 3. Set to 0 to disable retries.
+   */
+  public void setMaxRetries(int maxRetries) {
+    this.maxRetries = maxRetries;
+  }
+
+  /**
+   * Sets the time to wait before retrying a refused connection.
+   * <p>
+   * The wait time doubles on each retry of the same connection, up to the max backoff, and a
+   * random jitter of up to half of the wait time is subtracted, so clients refused at the same
+   * time do not retry at the same time.
+   *
+   * @param initialBackoffMillis millis to wait before the first retry. By default 1 second.
+   * @param maxBackoffMillis max millis to wait before a retry. By default 30 seconds.
+   */
+  public synchronized void setBackoffMillis(long initialBackoffMillis, long maxBackoffMillis) {
+    if (initialBackoffMillis <= 0 || maxBackoffMillis < initialBackoffMillis) {
+      throw new IllegalArgumentException(
+          "Invalid backoff: " + initialBackoffMillis + "-" + maxBackoffMillis);
+    }
+    this.initialBackoffMillis = initialBackoffMillis;
+    this.maxBackoffMillis = maxBackoffMillis;
+  }
+
+  /**
+   * Sets the max time a connection is considered to be negotiating.
+   * <p>
+   * After this time, the connection no longer counts for the max in flight connections, so a
+   * server which never unlocks the keyboard does not stall the rest of connections. The connection
+   * itself is not interrupted.
+   *
+   * @param negotiationTimeoutMillis max millis since the connection start. By default 30 seconds.
+   */
+  public void setNegotiationTimeoutMillis(long negotiationTimeoutMillis) {
+    this.negotiationTimeoutMillis = negotiationTimeoutMillis;
+  }
+
+  /**
+   * Schedules the connection of a client to a terminal server.
+   * <p>
+   * Pending connections are cancelled when the client is disconnected.
+   *
+   * @param client the client to connect.
+   * @param host host name of the terminal server.
+   * @param port port where the terminal server is listening for connections.
+   * @return a future completed when the keyboard is unlocked for the first time, or exceptionally
+   * with the exception of the last attempt when the connection fails.
+   */
+  public CompletableFuture<Void> connect(TerminalClient client, String host, int port) {
+    Attempt attempt = new Attempt(client, host, port);
+    synchronized (this) {
+      if (closed) {
+        throw new IllegalStateException("Connection scheduler is closed");
+      }
+      if (attempts.putIfAbsent(client, attempt) != null) {
+        throw new IllegalStateException("Client connection is already scheduled");
+      }
+      client.setConnectionScheduler(this);
+      pendingAttempts.addLast(attempt);
+    }
+    dispatch();
+    return attempt.future;
+  }
+
+  public synchronized int getPendingCount() {
+    return pendingAttempts.size();
+  }
+
+  public synchronized int getInFlightCount() {
+    return inFlight;
+  }
+
+  void cancel(TerminalClient client) {
+    Attempt attempt = attempts.get(client);
+    if (attempt != null) {
+      synchronized (this) {
+        pendingAttempts.remove(attempt);
+      }
+      attempt.finish(new CancellationException("Client disconnected"));
+    }
+  }
+
+  /**
+   * Cancels all pending connections (including the ones waiting to be retried) and stops
+   * background tasks.
+   * <p>
+   * Client connection listeners of cancelled connections are notified with a {@link
+   * CancellationException}. Connections already started are not affected.
+   */
+  public void close() {
+    List<Attempt> pending;
+    synchronized (this) {
+      closed = true;
+      pending = new ArrayList<>(pendingAttempts);
+      pendingAttempts.clear();
+      attempts.values().stream()
+          .filter(a -> a.waitingRetry)
+          .forEach(pending::add);
+    }
+    executor.shutdownNow();
+    pending.forEach(a -> a.abort(new CancellationException("Connection scheduler closed")));
+  }
+
+  private void dispatch() {
+    List<Attempt> ready = new ArrayList<>();
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      refillTokens();
+      while (!pendingAttempts.isEmpty() && inFlight < maxInFlight && tokens >= 1) {
+        Attempt attempt = pendingAttempts.pollFirst();
+        tokens--;
+        inFlight++;
+        attempt.inFlight = true;
+        ready.add(attempt);
+      }
+      // when limited by in flight connections, next dispatch happens on slot release
+      if (!pendingAttempts.isEmpty() && inFlight < maxInFlight && dispatchTask == null) {
+        long delayNanos = (long) Math.ceil((1 - tokens) / connectsPerNano);
+        dispatchTask = executor.schedule(() -> {
+          synchronized (this) {
+            dispatchTask = null;
+          }
+          dispatch();
+        }, delayNanos, TimeUnit.NANOSECONDS);
+      }
+    }
+    ready.forEach(Attempt::start);
+  }
+
+  private void refillTokens() {
+    long now = System.nanoTime();
+    tokens = Math.min(burstSize, tokens + (now - lastRefillNanos) * connectsPerNano);
+    lastRefillNanos = now;
+  }
+
+  private void release(Attempt attempt) {
+    synchronized (this) {
+      if (!attempt.inFlight) {
+        return;
+      }
+      attempt.inFlight = false;
+      inFlight--;
+    }
+    dispatch();
+  }
+
+  private void requeue(Attempt attempt) {
+    synchronized (this) {
+      if (closed || attempt.finished.get()) {
+        return;
+      }
+      attempt.waitingRetry = false;
+      pendingAttempts.addLast(attempt);
+    }
+    dispatch();
+  }
+
+  private synchronized long getBackoffMillis(int retry) {
+    long backoff = Math.min(maxBackoffMillis, initialBackoffMillis << Math.min(retry, 30));
+    if (backoff <= 0) {
+      backoff = maxBackoffMillis;
+    }
+    return backoff - ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+  }
+
+  private class Attempt implements ConnectionListener, KeyboardStatusListener {
+
+    private final TerminalClient client;
+    private final String host;
+    private final int port;
+    private final ConnectionListener clientListener;
+    private final CompletableFuture<Void> future = new CompletableFuture<>();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    // guarded by scheduler
+    private boolean inFlight;
+    private boolean waitingRetry;
+    private int retries;
+    private volatile boolean connected;
+    private volatile ScheduledFuture<?> timeoutTask;
+
+    private Attempt(TerminalClient client, String host, int port) {
+      this.client = client;
+      this.host = host;
+      this.port = port;
+      this.clientListener = client.getConnectionListener();
+    }
+
+    private void start() {
+      if (finished.get()) {
+        release(this);
+        return;
+      }
+      connected = false;
+      client.addKeyboardStatusListener(this);
+      try {
+        timeoutTask = executor.schedule(() -> release(this), negotiationTimeoutMillis,
+            TimeUnit.MILLISECONDS);
+        client.connect(host, port, this);
+      } catch (RuntimeException e) {
+        finish(e);
+      }
+    }
+
+    @Override
+    public void keyboardStatusChanged(KeyboardStatusChangedEvent evt) {
+      if (!evt.keyboardLocked) {
+        finish(null);
+      }
+    }
+
+    @Override
+    public void onConnection() {
+      connected = true;
+      clientListener.onConnection();
+    }
+
+    @Override
+    public void onException(Exception ex) {
+      // only exceptions establishing the connection are considered refusals
+      if (!connected && !finished.get() && retries < maxRetries) {
+        retry(ex);
+        return;
+      }
+      clientListener.onException(ex);
+      finish(ex);
+    }
+
+    @Override
+    public void onConnectionClosed() {
+      if (!finished.get() && retries < maxRetries) {
+        retry(null);
+        return;
+      }
+      clientListener.onConnectionClosed();
+      finish(new IOException(
+          "Connection closed by " + host + ":" + port + " before keyboard unlock"));
+    }
+
+    private void retry(Exception cause) {
+      long backoffMillis = getBackoffMillis(retries++);
+      LOG.debug("Retrying connection to {}:{} in {} millis", host, port, backoffMillis, cause);
+      cancelTimeout();
+      /*
+       * Marked before leaving the attempt to the executor, so close() always finds it (and aborts
+       * it) when it happens before the retry is requeued.
+       */
+      boolean schedulerClosed;
+      synchronized (ConnectionScheduler.this) {
+        schedulerClosed = closed;
+        waitingRetry = !closed;
+      }
+      if (schedulerClosed) {
+        abort(cause != null ? cause : new CancellationException("Connection scheduler closed"));
+        return;
+      }
+      // connection events come from the connection thread, which has to be stopped from other one
+      try {
+        executor.execute(() -> {
+          try {
+            client.abortConnection();
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          release(this);
+          try {
+            executor.schedule(() -> requeue(this), backoffMillis, TimeUnit.MILLISECONDS);
+          } catch (RejectedExecutionException e) {
+            // scheduler closed while aborting the connection
+            abort(cause != null ? cause : e);
+          }
+        });
+      } catch (RejectedExecutionException e) {
+        // scheduler closed
+        abort(cause != null ? cause : e);
+      }
+    }
+
+    private void cancelTimeout() {
+      ScheduledFuture<?> task = timeoutTask;
+      if (task != null) {
+        task.cancel(false);
+      }
+    }
+
+    // notifies the client listener, since the connection did not start or was aborted to retry
+    private void abort(Exception error) {
+      if (finish(error)) {
+        clientListener.onException(error);
+      }
+    }
+
+    private boolean finish(Throwable error) {
+      if (!finished.compareAndSet(false, true)) {
+        return false;
+      }
+      client.removeKeyboardStatusListener(this);
+      cancelTimeout();
+      attempts.remove(client, this);
+      release(this);
+      if (error == null) {
+        future.complete(null);
+      } else {
+        future.completeExceptionally(error);
+      }
+      return true;
+    }
+
+  }
+
+}
@@ -0,0 +1,175 @@
+package com.bytezone.dm3270;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Delivers the listener events (screen changes, keyboard status changes, cursor moves,
+ * connection events, etc) of a session.
+ * <p>
+ * By default events are delivered synchronously, in the thread which generates them (usually the
+ * one reading from the server socket). When an executor is provided events are queued and
+ * delivered asynchronously, in the same order they were generated, so slow listeners don't delay
+ * the processing of data received from the server. The executor may be shared by many sessions,
+ * but each session requires its own dispatcher.
+ */
+public class EventDispatcher {
+
+  private static final Logger LOG = LoggerFactory.getLogger(EventDispatcher.class);
+
+  // max events delivered in one executor task, to give other sessions a chance to run
+  private static final int MAX_EVENTS_PER_TASK = 64;
+
+  private final Executor executor;
+  private final int maxPendingEvents;
+  private final OverflowPolicy overflowPolicy;
+
+  private final Deque<Runnable> pendingEvents = new ArrayDeque<>();
+  private boolean scheduled;
+  private volatile Thread deliveringThread;
+
+  /**
+   * Action to take when an event is generated and the queue of pending events is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * Wait for pending events to be delivered. This slows down reading from the server socket,
+     * which is the same behavior as synchronous delivery.
+     * <p>
+     * The thread reading from the server waits after processing each received buffer, out of the
+     * session executor, so listeners may use the client while it waits. Events generated
+     * meanwhile (for example, by listeners or by client calls) are queued even if the queue is
+     * full.
+     */
+    BLOCK,
+    /**
+     * Discard the oldest pending event to make room for the new one.
+     */
+    DISCARD_OLDEST,
+    /**
+     * Discard the new event.
+     */
+    DISCARD_NEWEST
+  }
+
+  /**
+   * Creates a dispatcher which delivers events synchronously.
+   */
+  public EventDispatcher() {
+    this(null, 0, OverflowPolicy.BLOCK);
+  }
+
+  /**
+   * Creates a dispatcher which delivers events asynchronously and in order.
+   *
+   * @param executor executor in which events are delivered. May be shared by several sessions.
+   * @param maxPendingEvents maximum number of events waiting to be delivered.
+   * @param overflowPolicy what to do with new events when there are maxPendingEvents waiting to be
+   * delivered.
+   */
+  public EventDispatcher(Executor executor, int maxPendingEvents, OverflowPolicy overflowPolicy) {
+    if (executor != null && maxPendingEvents <= 0) {
+      throw new IllegalArgumentException("Max pending events must be greater than 0");
+    }
+    this.executor = executor;
+    this.maxPendingEvents = maxPendingEvents;
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  public void dispatch(Runnable event) {
+    if (executor == null) {
+      event.run();
+      return;
+    }
+
+    synchronized (pendingEvents) {
+      // never discard events generated by a listener, since they are consequence of delivered ones
+      if (pendingEvents.size() >= maxPendingEvents && overflowPolicy != OverflowPolicy.BLOCK
+          && Thread.currentThread() != deliveringThread) {
+        if (overflowPolicy == OverflowPolicy.DISCARD_NEWEST) {
+          LOG.warn("Discarding listener event since there are {} pending events",
+              maxPendingEvents);
+          return;
+        }
+        LOG.warn("Discarding oldest listener event since there are {} pending events",
+            maxPendingEvents);
+        pendingEvents.poll();
+      }
+      pendingEvents.add(event);
+      if (scheduled) {
+        return;
+      }
+      scheduled = true;
+    }
+    schedule();
+  }
+
+  /**
+   * Waits until there are less than the max pending events, when using {@link
+   * OverflowPolicy#BLOCK}.
+   * <p>
+   * This must not be invoked while running a task of the session executor, since listeners
+   * using the client would wait for it to complete. If the waiting thread is interrupted, it stops
+   * waiting and keeps its interrupted status, but no event is discarded.
+   */
+  public void awaitCapacity() {
+    if (executor == null || overflowPolicy != OverflowPolicy.BLOCK
+        || Thread.currentThread() == deliveringThread) {
+      return;
+    }
+    synchronized (pendingEvents) {
+      while (pendingEvents.size() >= maxPendingEvents) {
+        try {
+          pendingEvents.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private void schedule() {
+    try {
+      executor.execute(this::deliverPendingEvents);
+    } catch (RejectedExecutionException e) {
+      LOG.warn("Listener events executor rejected delivery of events", e);
+      synchronized (pendingEvents) {
+        pendingEvents.clear();
+        scheduled = false;
+        pendingEvents.notifyAll();
+      }
+    }
+  }
+
+  private void deliverPendingEvents() {
+    deliveringThread = Thread.currentThread();
+    try {
+      for (int i = 0; i < MAX_EVENTS_PER_TASK; i++) {
+        Runnable event;
+        synchronized (pendingEvents) {
+          event = pendingEvents.poll();
+          if (event == null) {
+            scheduled = false;
+            return;
+          }
+          pendingEvents.notifyAll();
+        }
+        try {
+          event.run();
+        } catch (RuntimeException e) {
+          LOG.warn("Problem notifying listener event", e);
+        }
+      }
+    } finally {
+      deliveringThread = null;
+    }
+    // still scheduled, so keep delivering in a new task
+    schedule();
+  }
+
+}
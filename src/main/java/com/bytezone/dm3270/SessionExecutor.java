@@ -0,0 +1,186 @@
+package com.bytezone.dm3270;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Runs, one at a time and in submission order, all the tasks which modify the state of a session:
+ * processing of data received from the server, setting fields text, moving the cursor, sending
+ * AIDs, etc.
+ * <p>
+ * By default tasks run in the submitting thread, holding a lock of the session. When an executor
+ * is provided tasks are queued and run in the executor, so many sessions can share a small pool
+ * of worker threads without contending for locks. The executor may be shared by many sessions,
+ * but each session requires its own session executor.
+ * <p>
+ * Tasks submitted from a task of the same session (for example, from a listener notified
+ * synchronously) run immediately, since otherwise they would be waiting for themselves.
+ */
+public class SessionExecutor {
+
+  // max tasks run in one executor task, to give other sessions a chance to run
+  private static final int MAX_TASKS_PER_RUN = 64;
+
+  private final Executor executor;
+
+  private final Object lock = new Object();
+  private final Deque<PendingTask<?>> pendingTasks = new ArrayDeque<>();
+  private boolean scheduled;
+  private volatile Thread runningThread;
+
+  /**
+   * Task which may throw a checked exception.
+   *
+   * @param <E> type of exception thrown by the task.
+   */
+  public interface Task<E extends Exception> {
+
+    void run() throws E;
+
+  }
+
+  /**
+   * Creates a session executor which runs tasks in the submitting thread.
+   */
+  public SessionExecutor() {
+    this(null);
+  }
+
+  /**
+   * Creates a session executor which runs tasks in the given executor.
+   *
+   * @param executor executor where tasks run. May be shared by several sessions.
+   */
+  public SessionExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Runs the given task and waits for it to complete.
+   *
+   * @param task the task to run.
+   * @param <E> type of exception thrown by the task.
+   * @throws E the exception thrown by the task.
+   */
+  @SuppressWarnings("unchecked")
+  public <E extends Exception> void run(Task<E> task) throws E {
+    if (executor == null) {
+      synchronized (lock) {
+        task.run();
+      }
+      return;
+    }
+    if (Thread.currentThread() == runningThread) {
+      task.run();
+      return;
+    }
+
+    CompletableFuture<Void> future = submit(() -> {
+      task.run();
+      return null;
+    });
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for session task", e);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      // the task only throws RuntimeException or E
+      throw (E) cause;
+    }
+  }
+
+  /**
+   * Submits the given task, to be run after all previously submitted ones.
+   *
+   * @param task the task to run.
+   * @param <T> type of the task result.
+   * @return a future which is completed with the task result, or exceptionally with the exception
+   * thrown by the task.
+   */
+  public <T> CompletableFuture<T> submit(Callable<T> task) {
+    PendingTask<T> pendingTask = new PendingTask<>(task);
+    if (executor == null) {
+      synchronized (lock) {
+        pendingTask.run();
+      }
+      return pendingTask.future;
+    }
+    if (Thread.currentThread() == runningThread) {
+      pendingTask.run();
+      return pendingTask.future;
+    }
+
+    synchronized (lock) {
+      pendingTasks.add(pendingTask);
+      if (scheduled) {
+        return pendingTask.future;
+      }
+      scheduled = true;
+    }
+    schedule();
+    return pendingTask.future;
+  }
+
+  private void schedule() {
+    try {
+      executor.execute(this::runPendingTasks);
+    } catch (RejectedExecutionException e) {
+      synchronized (lock) {
+        pendingTasks.forEach(t -> t.future.completeExceptionally(e));
+        pendingTasks.clear();
+        scheduled = false;
+      }
+    }
+  }
+
+  private void runPendingTasks() {
+    runningThread = Thread.currentThread();
+    try {
+      for (int i = 0; i < MAX_TASKS_PER_RUN; i++) {
+        PendingTask<?> task;
+        synchronized (lock) {
+          task = pendingTasks.poll();
+          if (task == null) {
+            scheduled = false;
+            return;
+          }
+        }
+        task.run();
+      }
+    } finally {
+      runningThread = null;
+    }
+    // still scheduled, so keep running in a new executor task
+    schedule();
+  }
+
+  private static class PendingTask<T> {
+
+    private final Callable<T> task;
+    private final CompletableFuture<T> future = new CompletableFuture<>();
+
+    private PendingTask(Callable<T> task) {
+      this.task = task;
+    }
+
+    private void run() {
+      try {
+        future.complete(task.call());
+      } catch (Throwable e) {
+        future.completeExceptionally(e);
+      }
+    }
+
+  }
+
+}
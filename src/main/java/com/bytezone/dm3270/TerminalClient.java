@@ -6,17 +6,34 @@ import com.bytezone.dm3270.application.Site;
 import com.bytezone.dm3270.display.Cursor;
 import com.bytezone.dm3270.display.CursorMoveListener;
 import com.bytezone.dm3270.display.Field;
+import com.bytezone.dm3270.display.FieldManager;
 import com.bytezone.dm3270.display.Screen;
 import com.bytezone.dm3270.display.ScreenChangeListener;
+import com.bytezone.dm3270.display.ScreenClassifier;
+import com.bytezone.dm3270.display.ScreenContext;
+import com.bytezone.dm3270.display.ScreenCoordinates;
 import com.bytezone.dm3270.display.ScreenDimensions;
 import com.bytezone.dm3270.display.ScreenPosition;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import com.bytezone.dm3270.display.ScreenTemplate;
+import com.bytezone.dm3270.display.ScreenTextDecoder;
+import com.bytezone.dm3270.display.TerminalColor;
+import com.bytezone.dm3270.streams.ProtocolTrace;
 import com.bytezone.dm3270.streams.TelnetState;
 import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import javax.net.SocketFactory;
+import javax.net.ssl.SSLContext;
 
 /**
  * Client to connect to TN3270 terminal servers.
@@ -25,12 +42,18 @@ import javax.net.SocketFactory;
  */
 public class TerminalClient {
 
+  private static final int DEFAULT_TRACE_SIZE = 32;
+
   private final Screen screen;
   private boolean usesExtended3270;
-  private ConsolePane consolePane;
+  private volatile ConsolePane consolePane;
+  private volatile ConnectionScheduler connectionScheduler;
   private SocketFactory socketFactory = SocketFactory.getDefault();
+  private SSLContext startTlsContext;
   private int connectionTimeoutMillis;
+  private int screenChangesQuietPeriodMillis;
   private final ConnectionListenerBroadcast connectionListenerBroadcast;
+  private volatile ProtocolTrace protocolTrace = new ProtocolTrace(DEFAULT_TRACE_SIZE);
 
   /**
    * Creates a new terminal client with given model and screen dimensions.
@@ -72,6 +95,22 @@ public class TerminalClient {
     this.socketFactory = socketFactory;
   }
 
+  /**
+   * Enables upgrading the connection to TLS when the server requests it with the telnet STARTTLS
+   * option.
+   * <p>
+   * TLS sessions are cached by the context, so sharing the same context among clients (for example
+   * all the clients of a {@link TerminalClientPool}) allows reconnections to the same host and
+   * port to resume a previous session instead of doing a full handshake. The cache size and session
+   * timeout can be tuned with the context {@link SSLContext#getClientSessionContext()}.
+   *
+   * @param startTlsContext the context used to create the TLS connections. If not specified (or
+   * null) STARTTLS is refused and the connection is kept as established by the socket factory.
+   */
+  public void setStartTlsContext(SSLContext startTlsContext) {
+    this.startTlsContext = startTlsContext;
+  }
+
   /**
    * Sets the timeout for the socket connection.
    *
@@ -102,6 +141,102 @@ public class TerminalClient {
     this.connectionListenerBroadcast.remove(connectionListener);
   }
 
+  /**
+   * Sets how listener events (screen changes, keyboard status changes, cursor moves and
+   * connection events) are delivered.
+   * <p>
+   * By default listeners are notified in the thread reading from the server, so a slow listener
+   * delays processing of subsequent data from the server. Use a dispatcher with an executor to
+   * notify listeners asynchronously, keeping the order of events.
+   *
+   * @param eventDispatcher the dispatcher to use. Each client requires its own dispatcher, but
+   * dispatchers may share the same executor.
+   */
+  public void setEventDispatcher(EventDispatcher eventDispatcher) {
+    screen.setEventDispatcher(eventDispatcher);
+    connectionListenerBroadcast.setEventDispatcher(eventDispatcher);
+  }
+
+  /**
+   * Sets where changes to the session (processing data received from the server, setting fields
+   * text, moving the cursor, sending AIDs, etc) are applied.
+   * <p>
+   * Changes are always applied one at a time and in the order they are requested. By default
+   * they are applied in the thread requesting them, holding a lock of the session. Use a session
+   * executor with an executor to apply them in a pool of threads shared by many sessions. This
+   * must be set before connecting.
+   *
+   * @param sessionExecutor the session executor to use. Each client requires its own session
+   * executor, but session executors may share the same executor.
+   */
+  public void setSessionExecutor(SessionExecutor sessionExecutor) {
+    screen.setSessionExecutor(sessionExecutor);
+  }
+
+  /**
+   * Sets whether screen change and keyboard status notifications are coalesced when the server
+   * sends several records in a row.
+   * <p>
+   * When enabled, listeners are notified once all the data received from the server has been
+   * processed (or after the quiet period set with {@link
+   * #setScreenChangesQuietPeriodMillis(int)}), with a single event for the final state of the
+   * screen and keyboard, instead of one event per record.
+   *
+   * @param coalescing set true to coalesce notifications. By default is false.
+   */
+  public void setScreenChangesCoalescing(boolean coalescing) {
+    screen.setCoalescingChanges(coalescing);
+  }
+
+  /**
+   * Sets the time to wait for more data from the server before notifying coalesced changes.
+   * <p>
+   * This only applies when changes coalescing is enabled with {@link
+   * #setScreenChangesCoalescing(boolean)}, and must be set before connecting.
+   *
+   * @param quietPeriodMillis number of millis without receiving data after which changes are
+   * notified. By default is 0, notifying changes as soon as there is no more received data
+   * pending to be processed.
+   */
+  public void setScreenChangesQuietPeriodMillis(int quietPeriodMillis) {
+    this.screenChangesQuietPeriodMillis = quietPeriodMillis;
+  }
+
+  /**
+   * Sets whether colors and highlighting of fields are only computed when requested.
+   * <p>
+   * When enabled, attributes received from the server are kept, but colors and highlighting of
+   * each field are computed the first time {@link #getColorAt(int, int)}, {@link
+   * #getBackgroundColorAt(int, int)} or {@link #isUnderlineAt(int, int)} is used for one of its
+   * positions. This saves processing for clients which only use the screen text. Screen snapshots
+   * don't compute them either, so they contain the default colors for fields not yet requested.
+   *
+   * @param textOnly set true to compute colors and highlighting only when requested. By default is
+   * false.
+   */
+  public void setTextOnly(boolean textOnly) {
+    screen.setTextOnly(textOnly);
+  }
+
+  /**
+   * Sets the number of raw records (sent and received) to keep for {@link #dumpTrace()}.
+   *
+   * <p>
+   * This may be changed while connected, in which case the records traced until then are
+   * discarded.
+   *
+   * @param traceSize number of records to keep. Set to 0 to disable tracing. By default the last
+   * 32 records are kept.
+   */
+  public void setTraceSize(int traceSize) {
+    ProtocolTrace trace = traceSize > 0 ? new ProtocolTrace(traceSize) : null;
+    protocolTrace = trace;
+    ConsolePane pane = consolePane;
+    if (pane != null) {
+      pane.setProtocolTrace(trace);
+    }
+  }
+
   /**
    * Connect to a terminal server.
    *
@@ -109,11 +244,23 @@ public class TerminalClient {
    * @param port port where the terminal server is listening for connections.
    */
   public void connect(String host, int port) {
+    connect(host, port, connectionListenerBroadcast);
+  }
+
+  // used by the connection scheduler to handle connection events before client listeners
+  void connect(String host, int port, ConnectionListener connectionListener) {
     screen.lockKeyboard("connect");
-    consolePane = new ConsolePane(screen, new Site(host, port, usesExtended3270), socketFactory);
-    consolePane.setConnectionTimeoutMillis(connectionTimeoutMillis);
-    consolePane.setConnectionListener(connectionListenerBroadcast);
-    consolePane.connect();
+    ConsolePane pane = new ConsolePane(screen, new Site(host, port, usesExtended3270),
+        socketFactory);
+    pane.setConnectionTimeoutMillis(connectionTimeoutMillis);
+    pane.setStartTlsContext(startTlsContext);
+    if (screen.isCoalescingChanges()) {
+      pane.setQuietPeriodMillis(screenChangesQuietPeriodMillis);
+    }
+    pane.setConnectionListener(connectionListener);
+    pane.setProtocolTrace(protocolTrace);
+    consolePane = pane;
+    pane.connect();
   }
 
   /**
@@ -124,16 +271,35 @@ public class TerminalClient {
    * @param text the text to set on the field.
    */
   public void setFieldTextByCoord(int row, int column, String text) {
-    int linearPosition = (row - 1) * screen.getScreenDimensions().columns + column - 1;
-    if (screen.getFieldManager().getFields().isEmpty()) {
-      setPositionText(text, linearPosition);
-    } else {
-      Field field = screen.getFieldManager()
-          .getFieldAt(linearPosition)
-          .orElseThrow(
-              () -> new IllegalArgumentException("Invalid field position " + row + "," + column));
-      setFieldText(field, text);
-    }
+    screen.getSessionExecutor().run(() -> {
+      int linearPosition = (row - 1) * screen.getScreenDimensions().columns + column - 1;
+      if (screen.getFieldManager().getFields().isEmpty()) {
+        setPositionText(text, linearPosition);
+      } else {
+        Field field = screen.getFieldManager()
+            .getFieldAt(linearPosition)
+            .orElseThrow(
+                () -> new IllegalArgumentException("Invalid field position " + row + "," + column));
+        setFieldText(field, text);
+      }
+    });
+  }
+
+  /**
+   * Same as {@link #setFieldTextByCoord(int, int, String)} but without waiting for the text to be
+   * set.
+   * <p>
+   * Changes are applied in the session executor, in the same order they are requested.
+   *
+   * @param row row number where to set the field text. First row is 1.
+   * @param column column number where to set the field text. First column is 1.
+   * @param text the text to set on the field.
+   * @return a future completed when the text has been set, or exceptionally with the exception
+   * which prevented it.
+   * @see #setSessionExecutor(SessionExecutor)
+   */
+  public CompletableFuture<Void> setFieldTextByCoordAsync(int row, int column, String text) {
+    return submit(() -> setFieldTextByCoord(row, column, text));
   }
 
   private void setPositionText(String text, int fieldPosition) {
@@ -153,33 +319,178 @@ public class TerminalClient {
   }
 
   private void setFieldText(Field field, String text) {
+    setCursorPosition(writeFieldText(field, text));
+  }
+
+  // returns the position where the cursor should be placed after writing the text
+  private int writeFieldText(Field field, String text) {
     field.setText(text);
     int nextPosition = findFieldNextPosition(text);
-    int cursorPosition =
-        field.getDisplayLength() > nextPosition ? field.getFirstLocation() + nextPosition
-            : field.getNextUnprotectedField().getFirstLocation();
+    return field.getDisplayLength() > nextPosition ? field.getFirstLocation() + nextPosition
+        : field.getNextUnprotectedField().getFirstLocation();
+  }
 
-    setCursorPosition(cursorPosition);
+  /**
+   * Set the text of several fields in the screen, each one identified by its coordinates.
+   * <p>
+   * The cursor is only moved once, after all fields have been set, to the position it would have
+   * after setting the last field.
+   *
+   * @param fieldsText map from coordinates to the text to set in the field at such coordinates.
+   * Fields are set in the map iteration order.
+   */
+  public void setFieldsTextByCoordinates(Map<ScreenCoordinates, String> fieldsText) {
+    screen.getSessionExecutor().run(() -> {
+      if (screen.getFieldManager().getFields().isEmpty()) {
+        fieldsText.forEach((c, text) -> setFieldTextByCoord(c.row, c.column, text));
+        return;
+      }
+      int cursorPosition = -1;
+      for (Map.Entry<ScreenCoordinates, String> fieldText : fieldsText.entrySet()) {
+        ScreenCoordinates coordinates = fieldText.getKey();
+        int linearPosition = coordinates.toLocation(screen.getScreenDimensions().columns);
+        Field field = screen.getFieldManager()
+            .getFieldAt(linearPosition)
+            .orElseThrow(() -> new IllegalArgumentException(
+                "Invalid field position " + coordinates.row + "," + coordinates.column));
+        cursorPosition = writeFieldText(field, fieldText.getValue());
+      }
+      if (cursorPosition >= 0) {
+        setCursorPosition(cursorPosition);
+      }
+    });
+  }
+
+  /**
+   * Same as {@link #setFieldsTextByCoordinates(Map)} but without waiting for the texts to be set.
+   *
+   * @param fieldsText map from coordinates to the text to set in the field at such coordinates.
+   * @return a future completed when the texts have been set, or exceptionally with the exception
+   * which prevented it.
+   */
+  public CompletableFuture<Void> setFieldsTextByCoordinatesAsync(
+      Map<ScreenCoordinates, String> fieldsText) {
+    return submit(() -> setFieldsTextByCoordinates(fieldsText));
+  }
+
+  /**
+   * Set the text of several fields in the screen, each one identified by its position.
+   * <p>
+   * This loads AWT. Use {@link #setFieldsTextByCoordinates(Map)} to avoid it.
+   *
+   * @param fieldsText map from position (x contains the column and y the row, both starting at 1)
+   * to the text to set in the field at such position. Fields are set in the map iteration order.
+   * @see #setFieldsTextByCoordinates(Map)
+   */
+  public void setFieldsTextByCoord(Map<Point, String> fieldsText) {
+    setFieldsTextByCoordinates(toCoordinates(fieldsText));
+  }
+
+  private static Map<ScreenCoordinates, String> toCoordinates(Map<Point, String> fieldsText) {
+    Map<ScreenCoordinates, String> ret = new LinkedHashMap<>();
+    fieldsText.forEach((p, text) -> ret.put(new ScreenCoordinates(p.y, p.x), text));
+    return ret;
+  }
+
+  /**
+   * Same as {@link #setFieldsTextByCoord(Map)} but without waiting for the texts to be set.
+   *
+   * @param fieldsText map from position to the text to set in the field at such position.
+   * @return a future completed when the texts have been set, or exceptionally with the exception
+   * which prevented it.
+   */
+  public CompletableFuture<Void> setFieldsTextByCoordAsync(Map<Point, String> fieldsText) {
+    return setFieldsTextByCoordinatesAsync(toCoordinates(fieldsText));
   }
 
   public void setFieldTextByLabel(String lbl, String text) {
-    if (screen.getFieldManager().getFields().isEmpty()) {
-      String screenText = getScreenText();
-      if (!screenText.contains(lbl)) {
-        throw buildInvalidFieldLabelException(lbl);
+    screen.getSessionExecutor().run(() -> {
+      if (screen.getFieldManager().getFields().isEmpty()) {
+        String screenText = getLiveScreenText();
+        if (!screenText.contains(lbl)) {
+          throw buildInvalidFieldLabelException(lbl);
+        }
+        // findLastNonBlankPosition() + 2 in order to get the first writable position,
+        // avoiding the first space after labels (which has been considered as 'standard')
+        int fieldPosition = findLastNonBlankPosition() + 2;
+        setPositionText(text, fieldPosition);
+      } else {
+        Field field = findFieldByLabel(lbl);
+        if (field == null) {
+          throw buildInvalidFieldLabelException(lbl);
+        }
+        setFieldText(field, text);
       }
-      // findLastNonBlankPosition() + 2 in order to get the first writable position,
-      // avoiding the first space after labels (which has been considered as 'standard')
-      int fieldPosition = findLastNonBlankPosition() + 2;
-      setPositionText(text, fieldPosition);
-    } else {
-      Field field = findFieldByLabel(lbl);
-      if (field == null) {
-        throw buildInvalidFieldLabelException(lbl);
+    });
+  }
+
+  /**
+   * Same as {@link #setFieldTextByLabel(String, String)} but without waiting for the text to be
+   * set.
+   *
+   * @param lbl the label identifying the field.
+   * @param text the text to set on the field.
+   * @return a future completed when the text has been set, or exceptionally with the exception
+   * which prevented it.
+   */
+  public CompletableFuture<Void> setFieldTextByLabelAsync(String lbl, String text) {
+    return submit(() -> setFieldTextByLabel(lbl, text));
+  }
+
+  /**
+   * Set the text of several fields in the screen, each one identified by a label.
+   * <p>
+   * Labels are resolved from the label index of the screen fields, scanning the screen once only
+   * for labels which are not indexed (like parts of words), and the cursor is only moved once,
+   * after all fields have been set, to the position it would have after setting the last field.
+   *
+   * @param fieldsText map from label to the text to set in the field following such label. Fields
+   * are set in the map iteration order.
+   * @throws IllegalArgumentException if any of the labels is not found. In such case no field is
+   * modified.
+   */
+  public void setFieldsTextByLabel(Map<String, String> fieldsText) {
+    screen.getSessionExecutor().run(() -> {
+      if (screen.getFieldManager().getFields().isEmpty()) {
+        // all labels are checked before writing, so no text is written when any is missing
+        String screenText = getLiveScreenText();
+        for (String label : fieldsText.keySet()) {
+          if (!screenText.contains(label)) {
+            throw buildInvalidFieldLabelException(label);
+          }
+        }
+        fieldsText.forEach(this::setFieldTextByLabel);
+        return;
       }
-      setFieldText(field, text);
-    }
+      Map<String, Field> labelFields = resolveLabelFields(fieldsText.keySet());
+      List<Field> fields = new ArrayList<>(fieldsText.size());
+      for (String label : fieldsText.keySet()) {
+        Field labelField = labelFields.get(label);
+        if (labelField == null || labelField.getNextUnprotectedField() == null) {
+          throw buildInvalidFieldLabelException(label);
+        }
+        fields.add(labelField.getNextUnprotectedField());
+      }
+      int cursorPosition = -1;
+      Iterator<Field> fieldsIterator = fields.iterator();
+      for (String text : fieldsText.values()) {
+        cursorPosition = writeFieldText(fieldsIterator.next(), text);
+      }
+      if (cursorPosition >= 0) {
+        setCursorPosition(cursorPosition);
+      }
+    });
+  }
 
+  /**
+   * Same as {@link #setFieldsTextByLabel(Map)} but without waiting for the texts to be set.
+   *
+   * @param fieldsText map from label to the text to set in the field following such label.
+   * @return a future completed when the texts have been set, or exceptionally with the exception
+   * which prevented it.
+   */
+  public CompletableFuture<Void> setFieldsTextByLabelAsync(Map<String, String> fieldsText) {
+    return submit(() -> setFieldsTextByLabel(fieldsText));
   }
 
   private IllegalArgumentException buildInvalidFieldLabelException(String lbl) {
@@ -187,7 +498,7 @@ public class TerminalClient {
   }
 
   private int findLastNonBlankPosition() {
-    String screenText = getScreenText();
+    String screenText = getLiveScreenText();
     int lastNonBlankPosition = screenText.length() - 1;
     while (lastNonBlankPosition >= 0 && (screenText.charAt(lastNonBlankPosition) == '\u0000'
         || screenText.charAt(lastNonBlankPosition) == '\n')
@@ -198,12 +509,13 @@ public class TerminalClient {
   }
 
   private Field findFieldByLabel(String label) {
-    Field labelField = findLabelField(label);
+    Field labelField = screen.getFieldManager().getFirstLabelField(label)
+        .orElseGet(() -> findLabelField(label));
     return (labelField != null) ? labelField.getNextUnprotectedField() : null;
   }
 
   private Field findLabelField(String label) {
-    String screenText = getScreenText().replace("\n", "");
+    String screenText = new String(getScreenChars());
     int pos = 0;
     Field fallbackLabelField = null;
     while (pos != -1) {
@@ -227,11 +539,107 @@ public class TerminalClient {
     return fallbackLabelField;
   }
 
+  // indexed labels are resolved without scanning the screen, and the rest with a single scan
+  private Map<String, Field> resolveLabelFields(Collection<String> labels) {
+    FieldManager fieldManager = screen.getFieldManager();
+    Map<String, Field> labelFields = new HashMap<>();
+    List<String> missingLabels = new ArrayList<>();
+    for (String label : labels) {
+      Field labelField = fieldManager.getFirstLabelField(label).orElse(null);
+      if (labelField != null) {
+        labelFields.put(label, labelField);
+      } else {
+        missingLabels.add(label);
+      }
+    }
+    if (!missingLabels.isEmpty()) {
+      labelFields.putAll(findLabelFields(missingLabels));
+    }
+    return labelFields;
+  }
+
+  /*
+   * Resolves the label fields of all given labels with one scan of the screen, applying the same
+   * rules as findLabelField: the first occurrence in a protected field is preferred, and the first
+   * occurrence in an unprotected field is used as fallback.
+   */
+  private Map<String, Field> findLabelFields(Collection<String> labels) {
+    Map<Character, List<String>> labelsByFirstChar = new HashMap<>();
+    for (String label : labels) {
+      if (!label.isEmpty()) {
+        labelsByFirstChar.computeIfAbsent(label.charAt(0), c -> new ArrayList<>()).add(label);
+      }
+    }
+    Map<String, Field> protectedFields = new HashMap<>();
+    Map<String, Field> fallbackFields = new HashMap<>();
+    char[] screenChars = getScreenChars();
+    for (int pos = 0; pos < screenChars.length && protectedFields.size() < labels.size();
+        pos++) {
+      List<String> candidates = labelsByFirstChar.get(screenChars[pos]);
+      if (candidates == null) {
+        continue;
+      }
+      Field field = null;
+      for (String label : candidates) {
+        if (protectedFields.containsKey(label) || !matchesAt(screenChars, pos, label)) {
+          continue;
+        }
+        if (field == null) {
+          field = screen.getFieldManager().getFieldAt(pos).orElse(null);
+          if (field == null) {
+            break;
+          }
+        }
+        if (field.isProtected()) {
+          protectedFields.put(label, field);
+        } else {
+          fallbackFields.putIfAbsent(label, field);
+        }
+      }
+    }
+    fallbackFields.forEach(protectedFields::putIfAbsent);
+    return protectedFields;
+  }
+
+  private static boolean matchesAt(char[] chars, int pos, String text) {
+    if (pos + text.length() > chars.length) {
+      return false;
+    }
+    for (int i = 0; i < text.length(); i++) {
+      if (chars[pos + i] != text.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
   public void setTabulatedInput(String text, int offset) throws NoSuchFieldException {
-    int row = getCursorPosition().get().y;
-    int column = getCursorPosition().get().x;
-    int linearPosition = (row - 1) * screen.getScreenDimensions().columns + column - 1;
-    if (!getFields().isEmpty()) {
+    screen.getSessionExecutor().run(() -> writeTabulatedInput(text, offset));
+  }
+
+  /**
+   * Same as {@link #setTabulatedInput(String, int)} but without waiting for the text to be set.
+   *
+   * @param text the text to set in the field.
+   * @param offset number of unprotected fields to skip from the cursor position.
+   * @return a future completed when the text has been set, or exceptionally with the exception
+   * which prevented it.
+   */
+  public CompletableFuture<Void> setTabulatedInputAsync(String text, int offset) {
+    return submit(() -> writeTabulatedInput(text, offset));
+  }
+
+  private void writeTabulatedInput(String text, int offset) throws NoSuchFieldException {
+    Cursor cursor = screen.getScreenCursor();
+    if (!cursor.isVisible()) {
+      throw new NoSuchElementException("No cursor in screen");
+    }
+    int linearPosition = cursor.getLocation();
+    ScreenCoordinates cursorCoordinates = ScreenCoordinates.fromLocation(linearPosition,
+        screen.getScreenDimensions().columns);
+    int row = cursorCoordinates.row;
+    int column = cursorCoordinates.column;
+    if (!screen.getFieldManager().getFields().isEmpty()) {
       Field finalField = screen.getFieldManager()
           .getFieldAt(linearPosition)
           .orElse(null);
@@ -270,6 +678,61 @@ public class TerminalClient {
     throw new NoSuchFieldException("Screen is not constituted by fields");
   }
 
+  /**
+   * Types a text from the cursor position, as a user typing it in the keyboard would do.
+   * <p>
+   * Text which does not fit in the field under the cursor continues in next unprotected fields,
+   * and in insert mode existing text is shifted to the right. Unlike setting field texts, this
+   * allows typing in the middle of a field. Cursor and field change listeners are notified only
+   * once, after the whole text is typed.
+   *
+   * @param text the text to type.
+   * @return the number of typed screen positions, which is the number of typed chars unless the
+   * text contains double byte chars (which take two positions, plus shift out and shift in ones
+   * around each run of them). Typing stops when the cursor is not in an unprotected field or, in
+   * insert mode, when the field is full.
+   */
+  public int typeText(CharSequence text) {
+    int[] typed = new int[1];
+    screen.getSessionExecutor().run(() -> {
+      typed[0] = screen.getScreenCursor().typeText(text);
+      screen.publishSnapshot();
+    });
+    return typed[0];
+  }
+
+  /**
+   * Same as {@link #typeText(CharSequence)} but without waiting for the text to be typed.
+   *
+   * @param text the text to type.
+   * @return a future completed with the number of typed screen positions.
+   */
+  public CompletableFuture<Integer> typeTextAsync(CharSequence text) {
+    return screen.getSessionExecutor().submit(() -> {
+      int typed = screen.getScreenCursor().typeText(text);
+      screen.publishSnapshot();
+      return typed;
+    });
+  }
+
+  /**
+   * Sets whether typed text is inserted (shifting existing field text to the right) or overwrites
+   * existing text.
+   *
+   * @param insertMode true to insert text, false to overwrite it (the default).
+   */
+  public void setInsertMode(boolean insertMode) {
+    screen.getSessionExecutor().run(() -> {
+      if (screen.isInsertMode() != insertMode) {
+        screen.toggleInsertMode();
+      }
+    });
+  }
+
+  public boolean isInsertMode() {
+    return screen.isInsertMode();
+  }
+
   /**
    * Send an Action ID.
    *
@@ -280,7 +743,22 @@ public class TerminalClient {
    * @param name Name of the action sent.
    */
   public void sendAID(byte aid, String name) {
-    consolePane.sendAID(aid, name);
+    screen.getSessionExecutor().run(() -> {
+      consolePane.sendAID(aid, name);
+      screen.publishSnapshot();
+    });
+  }
+
+  /**
+   * Same as {@link #sendAID(byte, String)} but without waiting for the AID to be sent.
+   *
+   * @param aid Action ID to send. For example Enter.
+   * @param name Name of the action sent.
+   * @return a future completed when the AID has been sent, or exceptionally with the exception
+   * which prevented it.
+   */
+  public CompletableFuture<Void> sendAIDAsync(byte aid, String name) {
+    return submit(() -> sendAID(aid, name));
   }
 
   /**
@@ -289,34 +767,73 @@ public class TerminalClient {
    * @return The screen text with newlines separating each row.
    */
   public String getScreenText() {
-    StringBuilder text = new StringBuilder();
+    return screen.getSnapshot().getText();
+  }
+
+  // current screen text, for operations running in the session executor
+  private String getLiveScreenText() {
+    char[] screenChars = getScreenChars();
+    int columns = screen.getScreenDimensions().columns;
+    StringBuilder text = new StringBuilder(screenChars.length + screenChars.length / columns);
+    for (int pos = 0; pos < screenChars.length; pos += columns) {
+      text.append(screenChars, pos, Math.min(columns, screenChars.length - pos));
+      if (pos + columns <= screenChars.length) {
+        text.append('\n');
+      }
+    }
+    return text.toString();
+  }
+
+  // screen characters, without row separators, with hidden fields contents as blanks
+  private char[] getScreenChars() {
+    ScreenDimensions screenDimensions = screen.getScreenDimensions();
+    char[] chars = new char[screenDimensions.columns * screenDimensions.rows];
     int pos = 0;
     boolean visible = true;
+    ScreenTextDecoder decoder = new ScreenTextDecoder(screen.getCharset(), true);
     Iterator<ScreenPosition> positionsIterator = screen.getPen().iterator();
-    ScreenDimensions screenDimensions = screen.getScreenDimensions();
-    int positionsCount = screenDimensions.columns * screenDimensions.rows;
-    while (pos < positionsCount && positionsIterator.hasNext()) {
+    while (pos < chars.length && positionsIterator.hasNext()) {
       ScreenPosition sp = positionsIterator.next();
       if (sp.isStartField()) {
         visible = sp.getStartFieldAttribute().isVisible();
+        decoder.reset();
       }
-      text.append(visible ? sp.getChar() : ' ');
-      ++pos;
-      if (pos % screenDimensions.columns == 0) {
-        text.append("\n");
+      if (visible) {
+        pos = decoder.decode(sp, chars, pos);
+      } else {
+        chars[pos++] = ' ';
       }
     }
-    return text.toString();
+    return pos == chars.length ? chars : Arrays.copyOf(chars, pos);
+  }
+
+  /**
+   * Gets an immutable copy of the screen contents (text, attributes, fields and cursor).
+   * <p>
+   * A new snapshot is published in the session executor each time the screen changes (after each
+   * processed record, field set, cursor move, etc), so this just returns the last published one,
+   * without locks nor waiting for data being received, and the same instance is returned while
+   * the screen does not change. Listeners notified while a record is being processed get the
+   * contents at that point, unless screen changes coalescing is enabled.
+   *
+   * @return the screen contents after the last processed change.
+   * @see #setScreenChangesCoalescing(boolean)
+   */
+  public ScreenSnapshot getScreenSnapshot() {
+    return screen.getSnapshot();
   }
 
   /**
    * Gets the list of all fields (protected and unprotected) that compose the screen.
+   * <p>
+   * The list is the one of the last published screen snapshot, but fields contents are read from
+   * the screen. Use {@link #getScreenSnapshot()} fields for an immutable copy.
    *
    * @return The list of fields that compose the screen. Fields are not only positions where input
    * is expected, but also parts of the screen which are not meant to be modified or even visible.
    */
   public List<Field> getFields() {
-    return screen.getFieldManager().getFields();
+    return screen.getSnapshotFields();
   }
 
   /**
@@ -337,6 +854,32 @@ public class TerminalClient {
     screen.getFieldManager().removeScreenChangeListener(listener);
   }
 
+  /**
+   * Sets the classifier used to identify the screen each time the server changes its fields.
+   * <p>
+   * The same classifier may be shared by many clients.
+   *
+   * @param classifier the classifier with the templates of known screens, or null to stop
+   * classifying screens.
+   * @see #getScreenTemplate()
+   */
+  public void setScreenClassifier(ScreenClassifier classifier) {
+    screen.getFieldManager().setScreenClassifier(classifier);
+  }
+
+  /**
+   * Gets the template of the current screen.
+   * <p>
+   * The screen is classified when its fields are built, so this method just returns the result,
+   * and can be invoked as often as needed from any thread.
+   *
+   * @return the template matching the current screen, or empty if the screen matches no template
+   * of the classifier set with {@link #setScreenClassifier(ScreenClassifier)}.
+   */
+  public Optional<ScreenTemplate> getScreenTemplate() {
+    return screen.getFieldManager().getScreenTemplate();
+  }
+
   /**
    * Allows checking if keyboard has been locked (no input can be sent) by the terminal server.
    *
@@ -393,23 +936,50 @@ public class TerminalClient {
     return screen.getScreenDimensions();
   }
 
+  /**
+   * Gets the coordinates of the cursor in the screen.
+   *
+   * @return the row and column of the cursor. If the cursor is not visible then empty value is
+   * returned.
+   */
+  public Optional<ScreenCoordinates> getCursorCoordinates() {
+    return screen.getSnapshot().getCursorCoordinates();
+  }
+
   /**
    * Get the position of the cursor in the screen.
+   * <p>
+   * This loads AWT. Use {@link #getCursorCoordinates()} to avoid it.
    *
    * @return The position of the cursor in the screen (x contains the column and y the row). If the
    * cursor is not visible then empty value is returned.
    */
   public Optional<Point> getCursorPosition() {
-    Cursor cursor = screen.getScreenCursor();
-    int location = cursor.getLocation();
-    int columns = screen.getScreenDimensions().columns;
-    return cursor.isVisible()
-        ? Optional.of(new Point(location % columns + 1, location / columns + 1))
-        : Optional.empty();
+    return getCursorCoordinates().map(c -> new Point(c.column, c.row));
   }
 
   public void setCursorPosition(int linearPosition) {
-    screen.getScreenCursor().moveTo(linearPosition);
+    screen.getSessionExecutor().run(() -> {
+      screen.getScreenCursor().moveTo(linearPosition);
+      screen.publishSnapshot();
+    });
+  }
+
+  /**
+   * Same as {@link #setCursorPosition(int)} but without waiting for the cursor to be moved.
+   *
+   * @param linearPosition position in the screen, starting at 0.
+   * @return a future completed when the cursor has been moved.
+   */
+  public CompletableFuture<Void> setCursorPositionAsync(int linearPosition) {
+    return submit(() -> setCursorPosition(linearPosition));
+  }
+
+  private CompletableFuture<Void> submit(SessionExecutor.Task<?> task) {
+    return screen.getSessionExecutor().submit(() -> {
+      task.run();
+      return null;
+    });
   }
 
   /**
@@ -430,30 +1000,52 @@ public class TerminalClient {
     screen.getScreenCursor().removeCursorMoveListener(listener);
   }
 
+  /**
+   * Gets the foreground color at a specific screen position.
+   *
+   * @param row row number (1-based)
+   * @param column column number (1-based)
+   * @return the foreground color at the specified position
+   */
+  public TerminalColor getTerminalColorAt(int row, int column) {
+    return getScreenContextAt(row, column).getTerminalForegroundColor();
+  }
+
+  /**
+   * Gets the background color at a specific screen position.
+   *
+   * @param row row number (1-based)
+   * @param column column number (1-based)
+   * @return the background color at the specified position
+   */
+  public TerminalColor getTerminalBackgroundColorAt(int row, int column) {
+    return getScreenContextAt(row, column).getTerminalBackgroundColor();
+  }
+
   /**
    * Get the foreground color at a specific screen position.
+   * <p>
+   * This loads AWT. Use {@link #getTerminalColorAt(int, int)} to avoid it.
    *
    * @param row row number (1-based)
    * @param column column number (1-based)
    * @return the foreground Color at the specified position
    */
   public java.awt.Color getColorAt(int row, int column) {
-    int linearPosition = (row - 1) * screen.getScreenDimensions().columns + column - 1;
-    ScreenPosition screenPosition = screen.getScreenPosition(linearPosition);
-    return screenPosition.getScreenContext().foregroundColor;
+    return getTerminalColorAt(row, column).toAwtColor();
   }
 
   /**
    * Get the background color at a specific screen position.
+   * <p>
+   * This loads AWT. Use {@link #getTerminalBackgroundColorAt(int, int)} to avoid it.
    *
    * @param row row number (1-based)
    * @param column column number (1-based)
    * @return the background Color at the specified position
    */
   public java.awt.Color getBackgroundColorAt(int row, int column) {
-    int linearPosition = (row - 1) * screen.getScreenDimensions().columns + column - 1;
-    ScreenPosition screenPosition = screen.getScreenPosition(linearPosition);
-    return screenPosition.getScreenContext().backgroundColor;
+    return getTerminalBackgroundColorAt(row, column).toAwtColor();
   }
 
   /**
@@ -464,19 +1056,63 @@ public class TerminalClient {
    * @return true if the position has underline highlighting, false otherwise
    */
   public boolean isUnderlineAt(int row, int column) {
-    int linearPosition = (row - 1) * screen.getScreenDimensions().columns + column - 1;
-    ScreenPosition screenPosition = screen.getScreenPosition(linearPosition);
-    byte highlight = screenPosition.getScreenContext().highlight;
+    byte highlight = getScreenContextAt(row, column).highlight;
     return (highlight & 0x0F) == 0x04; // 0x04 is the underscore/underline highlight value
   }
 
+  private ScreenContext getScreenContextAt(int row, int column) {
+    ScreenSnapshot snapshot = screen.getSnapshot();
+    int linearPosition = (row - 1) * snapshot.getScreenDimensions().columns + column - 1;
+    if (!screen.isTextOnly()) {
+      return snapshot.getScreenContext(linearPosition);
+    }
+    // in text only mode contexts are resolved on access, which modifies the screen
+    ScreenContext[] context = new ScreenContext[1];
+    screen.getSessionExecutor().run(
+        () -> context[0] = screen.getScreenPosition(linearPosition).getScreenContext());
+    return context[0];
+  }
+
+  /**
+   * Gets a hex dump of the last records sent to and received from the server.
+   * <p>
+   * This is useful for troubleshooting failed sessions, for example from {@link
+   * ConnectionListener#onException(Exception)}.
+   *
+   * @return the timestamp, direction and content of each traced record, oldest first. Empty if
+   * tracing is disabled.
+   */
+  public String dumpTrace() {
+    ProtocolTrace trace = protocolTrace;
+    return trace != null ? trace.dump() : "";
+  }
+
   /**
    * Disconnect the terminal emulator from the server.
    *
    * @throws InterruptedException thrown when the disconnect is interrupted.
    */
   public void disconnect() throws InterruptedException {
-    consolePane.disconnect();
+    ConnectionScheduler scheduler = connectionScheduler;
+    if (scheduler != null) {
+      scheduler.cancel(this);
+    }
+    abortConnection();
+  }
+
+  ConnectionListener getConnectionListener() {
+    return connectionListenerBroadcast;
+  }
+
+  void setConnectionScheduler(ConnectionScheduler connectionScheduler) {
+    this.connectionScheduler = connectionScheduler;
+  }
+
+  void abortConnection() throws InterruptedException {
+    ConsolePane pane = consolePane;
+    if (pane != null) {
+      pane.disconnect();
+    }
   }
 
 }
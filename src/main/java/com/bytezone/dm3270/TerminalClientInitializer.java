@@ -0,0 +1,18 @@
+package com.bytezone.dm3270;
+
+/**
+ * Interface to be invoked by {@link TerminalClientPool} to prepare a newly connected session (for
+ * example, to log in) before it is made available for leasing.
+ */
+public interface TerminalClientInitializer {
+
+  /**
+   * Method invoked once the client has connected and the keyboard has been unlocked for the first
+   * time.
+   *
+   * @param client the connected client to initialize.
+   * @throws Exception when the session could not be initialized. The session is then discarded.
+   */
+  void initialize(TerminalClient client) throws Exception;
+
+}
@@ -0,0 +1,388 @@
+package com.bytezone.dm3270;
+
+import com.bytezone.dm3270.application.KeyboardStatusChangedEvent;
+import com.bytezone.dm3270.application.KeyboardStatusListener;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pool of connected (and optionally initialized) {@link TerminalClient} sessions.
+ * <p>
+ * Sessions are connected in background, so leasing a session does not pay the cost of the
+ * connection, telnet negotiation and logon flow. Sessions are validated when leased and when
+ * returned, idle sessions are recycled after a configurable idle time or lifetime, and the pool is
+ * replenished in background whenever a session is discarded.
+ */
+public class TerminalClientPool {
+
+  private static final Logger LOG = LoggerFactory.getLogger(TerminalClientPool.class);
+
+  private final Supplier<TerminalClient> clientFactory;
+  private final String host;
+  private final int port;
+  private final int size;
+
+  private TerminalClientInitializer initializer;
+  private ConnectionScheduler connectionScheduler;
+  private Predicate<TerminalClient> validator = c -> !c.isKeyboardLocked();
+  private long connectTimeoutMillis = 30000;
+  private long maxIdleMillis;
+  private long maxLifetimeMillis;
+  private long maintenanceIntervalMillis = 1000;
+
+  private final BlockingDeque<PooledClient> idleClients = new LinkedBlockingDeque<>();
+  private final Map<TerminalClient, PooledClient> leasedClients = new ConcurrentHashMap<>();
+  private final AtomicInteger clientsCount = new AtomicInteger();
+  private ScheduledExecutorService executor;
+  private volatile boolean closed;
+
+  /**
+   * Creates a new pool of terminal clients.
+   *
+   * @param clientFactory creates each of the pooled clients, already configured (model, charset,
+   * socket factory, etc) but not connected.
+   * @param host host name of the terminal server.
+   * @param port port where the terminal server is listening for connections.
+   * @param size number of sessions to keep connected.
+   */
+  public TerminalClientPool(Supplier<TerminalClient> clientFactory, String host, int port,
+      int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Pool size must be greater than 0");
+    }
+    this.clientFactory = clientFactory;
+    this.host = host;
+    this.port = port;
+    this.size = size;
+  }
+
+  /**
+   * Sets the initializer to run on each session after it is connected (for example, to log in).
+   *
+   * @param initializer the initializer to run. By default no initialization is done.
+   */
+  public void setInitializer(TerminalClientInitializer initializer) {
+    this.initializer = initializer;
+  }
+
+  /**
+   * Sets the scheduler used to connect the pooled sessions, to limit the rate and concurrency of
+   * connections when filling big pools.
+   * <p>
+   * The connect timeout includes the time the connection waits in the scheduler.
+   *
+   * @param connectionScheduler the scheduler to use, which may be shared with other pools. By
+   * default sessions are connected as soon as they are needed.
+   */
+  public void setConnectionScheduler(ConnectionScheduler connectionScheduler) {
+    this.connectionScheduler = connectionScheduler;
+  }
+
+  /**
+   * Sets the condition a session has to meet to be leased or to be kept after it is returned.
+   *
+   * @param validator the condition to check, for example that an expected screen is displayed. By
+   * default sessions are valid when the keyboard is unlocked.
+   */
+  public void setValidator(Predicate<TerminalClient> validator) {
+    this.validator = validator;
+  }
+
+  /**
+   * Sets the maximum time to wait for a new session to get the keyboard unlocked for the first
+   * time.
+   *
+   * @param connectTimeoutMillis number of millis to wait. By default 30 seconds.
+   */
+  public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+    this.connectTimeoutMillis = connectTimeoutMillis;
+  }
+
+  /**
+   * Sets the time after which an idle session is discarded and replaced by a new one.
+   *
+   * @param maxIdleMillis number of millis a session may be idle. If not specified (or 0) idle
+   * sessions are never recycled.
+   */
+  public void setMaxIdleMillis(long maxIdleMillis) {
+    this.maxIdleMillis = maxIdleMillis;
+  }
+
+  /**
+   * Sets the time after which a session is discarded and replaced by a new one.
+   *
+   * @param maxLifetimeMillis number of millis a session may live. Leased sessions are recycled when
+   * returned. If not specified (or 0) sessions are never recycled.
+   */
+  public void setMaxLifetimeMillis(long maxLifetimeMillis) {
+    this.maxLifetimeMillis = maxLifetimeMillis;
+  }
+
+  /**
+   * Sets the period of the background task which evicts idle or expired sessions and replenishes
+   * the pool.
+   *
+   * @param maintenanceIntervalMillis number of millis between each check. By default 1 second.
+   */
+  public void setMaintenanceIntervalMillis(long maintenanceIntervalMillis) {
+    this.maintenanceIntervalMillis = maintenanceIntervalMillis;
+  }
+
+  /**
+   * Starts connecting the pooled sessions in background.
+   */
+  public synchronized void start() {
+    if (executor != null) {
+      return;
+    }
+    executor = Executors.newScheduledThreadPool(Math.min(size, 4), r -> {
+      Thread thread = new Thread(r, "TerminalClientPool " + host + ":" + port);
+      thread.setDaemon(true);
+      return thread;
+    });
+    executor.scheduleWithFixedDelay(this::maintain, maintenanceIntervalMillis,
+        maintenanceIntervalMillis, TimeUnit.MILLISECONDS);
+    replenish();
+  }
+
+  /**
+   * Leases a session from the pool, waiting for one to be available if required.
+   *
+   * @param timeoutMillis maximum number of millis to wait for a valid session.
+   * @return a connected session which has to be given back with {@link #release(TerminalClient)}
+   * or {@link #invalidate(TerminalClient)}.
+   * @throws InterruptedException if interrupted while waiting.
+   * @throws TimeoutException if no valid session is available in the given time.
+   */
+  public TerminalClient lease(long timeoutMillis) throws InterruptedException, TimeoutException {
+    if (closed) {
+      throw new IllegalStateException("Pool is closed");
+    }
+    long deadline = System.currentTimeMillis() + timeoutMillis;
+    while (true) {
+      long remaining = deadline - System.currentTimeMillis();
+      PooledClient pooledClient = idleClients.pollFirst(Math.max(remaining, 0),
+          TimeUnit.MILLISECONDS);
+      if (pooledClient == null) {
+        throw new TimeoutException("No session available after " + timeoutMillis + " millis");
+      }
+      if (isReusable(pooledClient)) {
+        leasedClients.put(pooledClient.client, pooledClient);
+        return pooledClient.client;
+      }
+      discard(pooledClient);
+    }
+  }
+
+  /**
+   * Gives back a leased session to the pool.
+   * <p>
+   * If the session is no longer valid, or has exceeded its lifetime, it is disconnected and
+   * replaced by a new one.
+   *
+   * @param client the session obtained from {@link #lease(long)}.
+   */
+  public void release(TerminalClient client) {
+    PooledClient pooledClient = removeLeased(client);
+    if (closed || !isReusable(pooledClient)) {
+      discard(pooledClient);
+      return;
+    }
+    pooledClient.lastUsedMillis = System.currentTimeMillis();
+    // most recently used first, so idle sessions at the end can be evicted
+    idleClients.offerFirst(pooledClient);
+  }
+
+  /**
+   * Discards a leased session (for example, when it was left in an unknown state) and replaces it
+   * with a new one.
+   *
+   * @param client the session obtained from {@link #lease(long)}.
+   */
+  public void invalidate(TerminalClient client) {
+    discard(removeLeased(client));
+  }
+
+  private PooledClient removeLeased(TerminalClient client) {
+    PooledClient pooledClient = leasedClients.remove(client);
+    if (pooledClient == null) {
+      throw new IllegalArgumentException("Client was not leased from this pool");
+    }
+    return pooledClient;
+  }
+
+  public int getIdleCount() {
+    return idleClients.size();
+  }
+
+  public int getLeasedCount() {
+    return leasedClients.size();
+  }
+
+  /**
+   * Disconnects all the sessions and stops background tasks.
+   * <p>
+   * Leased sessions are disconnected when they are given back to the pool.
+   *
+   * @throws InterruptedException thrown when the disconnect is interrupted.
+   */
+  public void close() throws InterruptedException {
+    synchronized (this) {
+      closed = true;
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+    }
+    List<PooledClient> clients = new ArrayList<>();
+    idleClients.drainTo(clients);
+    for (PooledClient pooledClient : clients) {
+      pooledClient.client.disconnect();
+    }
+  }
+
+  private boolean isReusable(PooledClient pooledClient) {
+    return !pooledClient.broken && !isExpired(pooledClient, System.currentTimeMillis())
+        && validator.test(pooledClient.client);
+  }
+
+  private boolean isExpired(PooledClient pooledClient, long now) {
+    return maxLifetimeMillis > 0 && now - pooledClient.createdMillis > maxLifetimeMillis;
+  }
+
+  private void maintain() {
+    long now = System.currentTimeMillis();
+    for (PooledClient pooledClient : idleClients) {
+      boolean idle = maxIdleMillis > 0 && now - pooledClient.lastUsedMillis > maxIdleMillis;
+      if ((pooledClient.broken || idle || isExpired(pooledClient, now))
+          && idleClients.remove(pooledClient)) {
+        LOG.debug("Evicting pooled session to {}:{}", host, port);
+        disconnect(pooledClient);
+        clientsCount.decrementAndGet();
+      }
+    }
+    replenish();
+  }
+
+  private void discard(PooledClient pooledClient) {
+    disconnect(pooledClient);
+    clientsCount.decrementAndGet();
+    replenish();
+  }
+
+  private void disconnect(PooledClient pooledClient) {
+    try {
+      pooledClient.client.disconnect();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private synchronized void replenish() {
+    if (closed || executor == null) {
+      return;
+    }
+    while (clientsCount.get() < size) {
+      clientsCount.incrementAndGet();
+      executor.execute(this::addClient);
+    }
+  }
+
+  private void addClient() {
+    PooledClient pooledClient = new PooledClient(clientFactory.get());
+    try {
+      pooledClient.connect();
+      if (initializer != null) {
+        initializer.initialize(pooledClient.client);
+      }
+    } catch (Exception e) {
+      // failed sessions are created again in next maintenance
+      LOG.warn("Could not create pooled session to {}:{}", host, port, e);
+      disconnect(pooledClient);
+      clientsCount.decrementAndGet();
+      if (e instanceof InterruptedException) {
+        Thread.currentThread().interrupt();
+      }
+      return;
+    }
+    pooledClient.lastUsedMillis = System.currentTimeMillis();
+    idleClients.offerFirst(pooledClient);
+    if (closed && idleClients.remove(pooledClient)) {
+      disconnect(pooledClient);
+    }
+  }
+
+  private class PooledClient implements ConnectionListener, KeyboardStatusListener {
+
+    private final TerminalClient client;
+    private final long createdMillis = System.currentTimeMillis();
+    private final CountDownLatch firstUnlock = new CountDownLatch(1);
+    private volatile long lastUsedMillis;
+    private volatile boolean broken;
+
+    private PooledClient(TerminalClient client) {
+      this.client = client;
+      client.addConnectionListener(this);
+    }
+
+    private void connect() throws IOException, InterruptedException, TimeoutException {
+      client.addKeyboardStatusListener(this);
+      try {
+        if (connectionScheduler != null) {
+          connectionScheduler.connect(client, host, port);
+        } else {
+          client.connect(host, port);
+        }
+        if (!firstUnlock.await(connectTimeoutMillis, TimeUnit.MILLISECONDS)) {
+          throw new TimeoutException(
+              "Keyboard not unlocked after " + connectTimeoutMillis + " millis");
+        }
+      } finally {
+        client.removeKeyboardStatusListener(this);
+      }
+      if (broken) {
+        throw new IOException("Connection lost while connecting to " + host + ":" + port);
+      }
+    }
+
+    @Override
+    public void keyboardStatusChanged(KeyboardStatusChangedEvent evt) {
+      if (!evt.keyboardLocked) {
+        firstUnlock.countDown();
+      }
+    }
+
+    @Override
+    public void onConnection() {
+    }
+
+    @Override
+    public void onException(Exception ex) {
+      LOG.debug("Pooled session to {}:{} failed", host, port, ex);
+      broken = true;
+      firstUnlock.countDown();
+    }
+
+    @Override
+    public void onConnectionClosed() {
+      broken = true;
+      firstUnlock.countDown();
+    }
+
+  }
+
+}
@@ -9,10 +9,12 @@ import com.bytezone.dm3270.display.FieldChangeListener;
 import com.bytezone.dm3270.display.Screen;
 import com.bytezone.dm3270.extended.CommandHeader;
 import com.bytezone.dm3270.extended.TN3270ExtendedCommand;
+import com.bytezone.dm3270.streams.ProtocolTrace;
 import com.bytezone.dm3270.streams.TelnetListener;
 import com.bytezone.dm3270.streams.TelnetState;
 import com.bytezone.dm3270.streams.TerminalServer;
 import javax.net.SocketFactory;
+import javax.net.ssl.SSLContext;
 
 public class ConsolePane implements FieldChangeListener, CursorMoveListener,
     KeyboardStatusListener {
@@ -23,10 +25,13 @@ public class ConsolePane implements FieldChangeListener, CursorMoveListener,
   private final Site server;
   private final SocketFactory socketFactory;
 
-  private TerminalServer terminalServer;
+  private volatile TerminalServer terminalServer;
   private Thread terminalServerThread;
   private int connectionTimeoutMillis;
+  private int quietPeriodMillis;
+  private SSLContext startTlsContext;
   private ConnectionListener connectionListener;
+  private volatile ProtocolTrace protocolTrace;
 
   public ConsolePane(Screen screen, Site server, SocketFactory socketFactory) {
     this.screen = screen;
@@ -43,11 +48,28 @@ public class ConsolePane implements FieldChangeListener, CursorMoveListener,
     this.connectionTimeoutMillis = connectionTimeoutMillis;
   }
 
+  public void setQuietPeriodMillis(int quietPeriodMillis) {
+    this.quietPeriodMillis = quietPeriodMillis;
+  }
+
+  public void setStartTlsContext(SSLContext startTlsContext) {
+    this.startTlsContext = startTlsContext;
+  }
+
   public void setConnectionListener(
       ConnectionListener connectionListener) {
     this.connectionListener = connectionListener;
   }
 
+  public void setProtocolTrace(ProtocolTrace protocolTrace) {
+    this.protocolTrace = protocolTrace;
+    // the trace may be replaced while connected
+    TerminalServer server = terminalServer;
+    if (server != null) {
+      server.setProtocolTrace(protocolTrace);
+    }
+  }
+
   public void sendAID(byte aid, String name) {
     if (screen.isInsertMode()) {
       screen.toggleInsertMode();
@@ -86,12 +108,16 @@ public class ConsolePane implements FieldChangeListener, CursorMoveListener,
     // set preferences for this session
     telnetState.setDo3270Extended(server.getExtended());
     telnetState.setDoTerminalType(true);
+    telnetState.setDoStartTls(startTlsContext != null);
 
     TelnetListener telnetListener = new TelnetListener(screen, telnetState);
     terminalServer =
         new TerminalServer(server.getURL(), server.getPort(), socketFactory, telnetListener);
     terminalServer.setConnectionTimeoutMillis(connectionTimeoutMillis);
+    terminalServer.setQuietPeriodMillis(quietPeriodMillis);
+    terminalServer.setStartTlsContext(startTlsContext);
     terminalServer.setConnectionListener(connectionListener);
+    terminalServer.setProtocolTrace(protocolTrace);
     telnetState.setTerminalServer(terminalServer);
 
     terminalServerThread = new Thread(terminalServer);
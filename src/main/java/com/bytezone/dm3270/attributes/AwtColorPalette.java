@@ -0,0 +1,22 @@
+package com.bytezone.dm3270.attributes;
+
+import com.bytezone.dm3270.display.TerminalColor;
+import java.awt.Color;
+import java.util.Arrays;
+
+/*
+ Holds the AWT colors of color attributes. Being an interface, it is only initialized (loading AWT)
+ when the palette is first accessed, and not when color attributes are created.
+ */
+interface AwtColorPalette {
+
+  /**
+   * @deprecated use {@link TerminalColor#fromValue(byte)} and {@link TerminalColor#toAwtColor()}
+   * instead.
+   */
+  @Deprecated
+  Color[] COLORS = Arrays.stream(TerminalColor.values())
+      .map(TerminalColor::toAwtColor)
+      .toArray(Color[]::new);
+
+}
@@ -11,6 +11,10 @@ public class Charset extends Attribute {
     aplCharset = (charset == (byte) 0xf1);
   }
 
+  public boolean isAplCharset() {
+    return aplCharset;
+  }
+
   @Override
   public ScreenContext process(ScreenContext defaultContext, ScreenContext currentContext) {
     return currentContext.withGraphic(aplCharset);
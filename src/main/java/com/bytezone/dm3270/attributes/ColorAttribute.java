@@ -1,8 +1,9 @@
 package com.bytezone.dm3270.attributes;
 
+import com.bytezone.dm3270.display.TerminalColor;
 import java.awt.Color;
 
-public abstract class ColorAttribute extends Attribute {
+public abstract class ColorAttribute extends Attribute implements AwtColorPalette {
 
   public static final byte COLOR_NEUTRAL1 = 0x00;
   public static final byte COLOR_BLUE = (byte) 0xF1;
@@ -21,50 +22,29 @@ public abstract class ColorAttribute extends Attribute {
   public static final byte COLOR_GREY = (byte) 0xFE;
   public static final byte COLOR_WHITE = (byte) 0xFF;
 
-  public static final Color[] COLORS = //
-      {new Color(0.9607843f, 0.9607843f, 0.9607843f),     // WHITESMOKE
-          new Color(0.11764706f, 0.5647059f, 1.0f),     // DODGERBLUE
-          Color.RED,
-          Color.PINK,
-          new Color(0.0f, 1.0f, 0.0f),           // LIME
-          new Color(0.28235295f, 0.81960785f, 0.8f),      // TURQUOISE
-          Color.YELLOW,
-          new Color(0.9607843f, 0.9607843f, 0.9607843f),     // WHITESMOKE
-          Color.BLACK,
-          new Color(0.0f, 0.0f, 0.54509807f),       // DARKBLUE
-          Color.ORANGE,
-          new Color(0.5019608f, 0.0f, 0.5019608f),  // PURPLE
-          new Color(0.59607846f, 0.9843137f, 0.59607846f),      // PALEGREEN
-          new Color(0.6862745f, 0.93333334f, 0.93333334f),  // PALETURQUOISE
-          Color.GRAY,
-          new Color(0.9607843f, 0.9607843f, 0.9607843f),     // WHITESMOKE
-      };
-
-  private static final String[] COLOR_NAMES =
-      {"Neutral1", "Blue", "Red", "Pink", "Green", "Turquoise", "Yellow", "Neutral2",
-          "Black", "Deep blue", "Orange", "Purple", "Pale green", "Pale turquoise", "Grey",
-          "White"};
-
-  protected final Color color;
+  protected final TerminalColor color;
 
   public ColorAttribute(AttributeType type, byte byteType, byte value) {
     super(type, byteType, value);
-    color = COLORS[value & 0x0F];
+    color = TerminalColor.fromValue(value);
   }
 
+  /**
+   * @deprecated use {@link TerminalColor#fromAwtColor(Color)} and {@link TerminalColor#getLabel()}
+   * instead.
+   */
+  @Deprecated
   public static String getName(Color searchColor) {
-    int count = 0;
-    for (Color color : COLORS) {
-      if (color == searchColor) {
-        return COLOR_NAMES[count];
+    for (int i = 0; i < COLORS.length; i++) {
+      if (COLORS[i] == searchColor) {
+        return colorName((byte) i);
       }
-      ++count;
     }
     return searchColor.toString();
   }
 
   public static String colorName(byte value) {
-    return COLOR_NAMES[value & 0x0F];
+    return TerminalColor.fromValue(value).getLabel();
   }
 
   @Override
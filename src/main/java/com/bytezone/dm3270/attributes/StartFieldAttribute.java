@@ -1,16 +1,10 @@
 package com.bytezone.dm3270.attributes;
 
 import com.bytezone.dm3270.display.ScreenContext;
-import java.awt.Color;
+import com.bytezone.dm3270.display.TerminalColor;
 
 public class StartFieldAttribute extends Attribute {
 
-  private static final Color WHITE = ColorAttribute.COLORS[0];
-  private static final Color BLUE = ColorAttribute.COLORS[1];
-  private static final Color RED = ColorAttribute.COLORS[2];
-  private static final Color GREEN = ColorAttribute.COLORS[4];
-  private static final Color BLACK = ColorAttribute.COLORS[8];
-
   private final boolean isProtected;      // bit 2
   private final boolean isNumeric;        // bit 3
   private final boolean isModified;       // bit 7
@@ -84,9 +78,11 @@ public class StartFieldAttribute extends Attribute {
   public ScreenContext process(ScreenContext unused1, ScreenContext unused2) {
     assert unused1 == null && unused2 == null;
 
-    Color color = isHighIntensity ? isProtected ? WHITE : RED : isProtected ? BLUE : GREEN;
+    TerminalColor color = isHighIntensity
+        ? isProtected ? TerminalColor.NEUTRAL1 : TerminalColor.RED
+        : isProtected ? TerminalColor.BLUE : TerminalColor.GREEN;
 
-    return new ScreenContext(color, BLACK, (byte) 0, isHighIntensity, false);
+    return new ScreenContext(color, TerminalColor.BLACK, (byte) 0, isHighIntensity, false);
   }
 
   private String getColorName() {
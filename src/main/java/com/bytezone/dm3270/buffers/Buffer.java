@@ -5,6 +5,7 @@ import com.bytezone.dm3270.display.Screen;
 public interface Buffer {
 
   int HEX_LINE_SIZE = 16;
+  char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
 
   static int unsignedShort(byte[] buffer, int offset) {
     return (buffer[offset] & 0xFF) * 0x100 + (buffer[offset + 1] & 0xFF);
@@ -28,7 +29,7 @@ public interface Buffer {
       StringBuilder textLine = new StringBuilder();
       for (int linePtr = 0; linePtr < HEX_LINE_SIZE && ptr + linePtr < max; linePtr++) {
         int val = b[ptr + linePtr] & 0xFF;
-        hexLine.append(String.format("%02X ", val));
+        hexLine.append(HEX_DIGITS[val >> 4]).append(HEX_DIGITS[val & 0x0F]).append(' ');
         if (val < 0x20 || val >= 0xF0) {
           textLine.append('.');
         } else {
@@ -6,6 +6,7 @@ import com.bytezone.dm3270.display.Field;
 import com.bytezone.dm3270.display.FieldManager;
 import com.bytezone.dm3270.display.Screen;
 import com.bytezone.dm3270.orders.BufferAddress;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import com.bytezone.dm3270.orders.BufferAddressSource;
 import com.bytezone.dm3270.orders.Order;
 import com.bytezone.dm3270.orders.SetBufferAddressOrder;
@@ -74,7 +75,8 @@ public class AIDCommand extends Command implements BufferAddressSource, Iterable
   private final List<Order> orders = new ArrayList<>();
   private final List<Order> textOrders = new ArrayList<>();
 
-  public AIDCommand(byte[] buffer, int offset, int length, Charset charset) {
+  public AIDCommand(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     super(buffer, offset, length);       // copies buffer[offset:length] to data[]
 
     keyCommand = data[0];
@@ -85,14 +87,14 @@ public class AIDCommand extends Command implements BufferAddressSource, Iterable
       return;
     }
 
-    cursorAddress = new BufferAddress(data[1], data[2]);
+    cursorAddress = new BufferAddress(data[1], data[2], codec);
 
     int ptr = 3;
     Order previousOrder = null;
     ModifiedField currentAIDField = null;
 
     while (ptr < length) {
-      Order order = Order.getOrder(data, ptr, length, charset);
+      Order order = Order.getOrder(data, ptr, length, charset, codec);
       if (previousOrder != null && previousOrder.matchesPreviousOrder(order)) {
         previousOrder.incrementDuplicates();
       } else {
@@ -169,9 +171,7 @@ public class AIDCommand extends Command implements BufferAddressSource, Iterable
           byte[] buffer = modifiedFields.get(0).getBuffer();
           if (buffer.length == cursorDistance) {
             // cannot call field.setText() as the data starts mid-field
-            for (byte b : buffer) {
-              cursor.typeChar(b);        // send characters through the old cursor
-            }
+            cursor.typeChars(buffer);        // send characters through the old cursor
             return true;
           }
         }
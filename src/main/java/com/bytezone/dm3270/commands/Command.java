@@ -2,6 +2,7 @@ package com.bytezone.dm3270.commands;
 
 import com.bytezone.dm3270.Charset;
 import com.bytezone.dm3270.buffers.AbstractTN3270Command;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -97,7 +98,8 @@ public abstract class Command extends AbstractTN3270Command {
    * used. A Short Read results in only the AID being sent inbound to the host.
    */
 
-  public static Command getCommand(byte[] buffer, int offset, int length, Charset charset) {
+  public static Command getCommand(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     switch (buffer[offset]) {
       case Command.WRITE_F1:
       case Command.WRITE_01:
@@ -105,7 +107,7 @@ public abstract class Command extends AbstractTN3270Command {
       case Command.ERASE_WRITE_05:
       case Command.ERASE_WRITE_ALTERNATE_7E:
       case Command.ERASE_WRITE_ALTERNATE_0D:
-        return new WriteCommand(buffer, offset, length, charset);
+        return new WriteCommand(buffer, offset, length, charset, codec);
 
       case Command.ERASE_ALL_UNPROTECTED_6F:
       case Command.ERASE_ALL_UNPROTECTED_0F:
@@ -121,7 +123,7 @@ public abstract class Command extends AbstractTN3270Command {
 
       case Command.WRITE_STRUCTURED_FIELD_F3:
       case Command.WRITE_STRUCTURED_FIELD_11:
-        return new WriteStructuredFieldCommand(buffer, offset, length, charset);
+        return new WriteStructuredFieldCommand(buffer, offset, length, charset, codec);
 
       default:
         LOG.warn("Unknown 3270 Command: {}\n{}", String.format("%02X", buffer[offset]),
@@ -132,11 +134,12 @@ public abstract class Command extends AbstractTN3270Command {
 
   public abstract String getName();
 
-  public static Command getReply(byte[] buffer, int offset, int length, Charset charset) {
+  public static Command getReply(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     if (buffer[offset] == AIDCommand.AID_STRUCTURED_FIELD) {
       return new ReadStructuredFieldCommand(buffer, offset, length, charset);
     }
-    return new AIDCommand(buffer, offset, length, charset);
+    return new AIDCommand(buffer, offset, length, charset, codec);
   }
 
 }
@@ -22,6 +22,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,9 +34,12 @@ public class ReadStructuredFieldCommand extends Command {
   private static final String SEPARATOR =
       "\n-------------------------------------------------------------------------";
 
-  private final List<StructuredField> structuredFields = new ArrayList<>();
+  // replies only depend on the alternate screen dimensions and the query list, so they are shared
+  private static final Map<ReplyKey, byte[]> REPLIES_CACHE = new ConcurrentHashMap<>();
 
-  private ScreenDimensions screenDimensions;
+  private final Charset charset;
+  // parsed when required, since replies built by the terminal are not inspected
+  private List<StructuredField> structuredFields;
 
   public ReadStructuredFieldCommand(TelnetState telnetState, Charset charset) {
     this(buildReply(telnetState), charset);
@@ -52,9 +56,17 @@ public class ReadStructuredFieldCommand extends Command {
 
   public ReadStructuredFieldCommand(byte[] buffer, int offset, int length, Charset charset) {
     super(buffer, offset, length);
+    this.charset = charset;
 
     assert data[0] == AIDCommand.AID_STRUCTURED_FIELD;
+  }
+
+  private List<StructuredField> getStructuredFields() {
+    if (structuredFields != null) {
+      return structuredFields;
+    }
 
+    List<StructuredField> fields = new ArrayList<>();
     int ptr = 1;
     int max = data.length;
 
@@ -66,42 +78,46 @@ public class ReadStructuredFieldCommand extends Command {
       switch (data[ptr]) {
         case StructuredField.QUERY_REPLY:
           QueryReplySF queryReply = new QueryReplySF(data, ptr, size, charset);
-          structuredFields.add(queryReply);
+          fields.add(queryReply);
           replies.add(queryReply.getQueryReplyField());
           break;
 
         default:
           LOG.warn("Unknown Structured Field: {}", Buffer.toHex(data, ptr, 1));
-          structuredFields.add(new DefaultStructuredField(data, ptr, size, charset));
+          fields.add(new DefaultStructuredField(data, ptr, size, charset));
       }
       ptr += size;
     }
 
-    if (replies.size() > 0) {
-      for (QueryReplyField reply : replies) {
-        reply.addReplyFields(replies);         // allow each QRF to see all the others
-        if (screenDimensions == null && reply instanceof UsableArea) {
-          screenDimensions = ((UsableArea) reply).getScreenDimensions();
-        }
-      }
+    for (QueryReplyField reply : replies) {
+      reply.addReplyFields(replies);         // allow each QRF to see all the others
     }
+
+    structuredFields = fields;
+    return fields;
   }
 
   private static byte[] buildReply(TelnetState telnetState) {
-    return buildReplyBytes(buildAvailableReplyFields(telnetState));
+    ScreenDimensions screenDimensions = telnetState.getSecondary();
+    return REPLIES_CACHE.computeIfAbsent(new ReplyKey(screenDimensions, null),
+        k -> buildReplyBytes(buildAvailableReplyFields(screenDimensions)));
   }
 
   private static byte[] buildReply(List<ReplyType> queryList, TelnetState telnetState) {
-    Map<ReplyType, QueryReplyField> replyFields = buildAvailableReplyFields(telnetState).stream()
-        .collect(Collectors.toMap(QueryReplyField::getReplyType, r -> r));
-    return buildReplyBytes(queryList.stream()
-        .map(replyFields::get)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toList()));
+    ScreenDimensions screenDimensions = telnetState.getSecondary();
+    return REPLIES_CACHE.computeIfAbsent(new ReplyKey(screenDimensions, queryList), k -> {
+      Map<ReplyType, QueryReplyField> replyFields = buildAvailableReplyFields(screenDimensions)
+          .stream()
+          .collect(Collectors.toMap(QueryReplyField::getReplyType, r -> r));
+      return buildReplyBytes(queryList.stream()
+          .map(replyFields::get)
+          .filter(Objects::nonNull)
+          .collect(Collectors.toList()));
+    });
   }
 
-  private static List<QueryReplyField> buildAvailableReplyFields(TelnetState telnetState) {
-    ScreenDimensions screenDimensions = telnetState.getSecondary();
+  private static List<QueryReplyField> buildAvailableReplyFields(
+      ScreenDimensions screenDimensions) {
     return Arrays.asList(new UsableArea(screenDimensions.rows, screenDimensions.columns),
         new Color(),
         new Highlight(),
@@ -139,6 +155,7 @@ public class ReadStructuredFieldCommand extends Command {
 
   @Override
   public String toString() {
+    List<StructuredField> structuredFields = getStructuredFields();
     StringBuilder text =
         new StringBuilder(String.format("RSF (%d):", structuredFields.size()));
 
@@ -155,4 +172,43 @@ public class ReadStructuredFieldCommand extends Command {
     return text.toString();
   }
 
+  private static final class ReplyKey {
+
+    private final int rows;
+    private final int columns;
+    private final byte[] queryTypes;
+
+    private ReplyKey(ScreenDimensions screenDimensions, List<ReplyType> queryList) {
+      this.rows = screenDimensions.rows;
+      this.columns = screenDimensions.columns;
+      if (queryList == null) {
+        queryTypes = null;
+      } else {
+        queryTypes = new byte[queryList.size()];
+        for (int i = 0; i < queryTypes.length; i++) {
+          queryTypes[i] = queryList.get(i).type;
+        }
+      }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      ReplyKey that = (ReplyKey) o;
+      return rows == that.rows && columns == that.columns
+          && Arrays.equals(queryTypes, that.queryTypes);
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * (31 * rows + columns) + Arrays.hashCode(queryTypes);
+    }
+
+  }
+
 }
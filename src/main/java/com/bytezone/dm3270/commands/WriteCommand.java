@@ -4,6 +4,7 @@ import com.bytezone.dm3270.Charset;
 import com.bytezone.dm3270.display.Cursor;
 import com.bytezone.dm3270.display.Screen;
 import com.bytezone.dm3270.display.Screen.ScreenOption;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import com.bytezone.dm3270.orders.Order;
 import com.bytezone.dm3270.orders.TextOrder;
 import java.util.ArrayList;
@@ -16,7 +17,8 @@ public class WriteCommand extends Command {
   private final WriteControlCharacter writeControlCharacter;
   private final List<Order> orders = new ArrayList<>();
 
-  public WriteCommand(byte[] buffer, int offset, int length, Charset charset) {
+  public WriteCommand(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     super(buffer, offset, length);
 
     assert buffer[offset] == Command.WRITE_01 || buffer[offset] == Command.WRITE_F1
@@ -36,7 +38,7 @@ public class WriteCommand extends Command {
 
     int max = offset + length;
     while (ptr < max) {
-      Order order = Order.getOrder(buffer, ptr, max, charset);
+      Order order = Order.getOrder(buffer, ptr, max, charset, codec);
 
       if (order.matchesPreviousOrder(previousOrder)) {
         previousOrder.incrementDuplicates();           // and discard this Order
@@ -4,6 +4,7 @@ import com.bytezone.dm3270.Charset;
 import com.bytezone.dm3270.buffers.Buffer;
 import com.bytezone.dm3270.buffers.MultiBuffer;
 import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import com.bytezone.dm3270.structuredfields.DefaultStructuredField;
 import com.bytezone.dm3270.structuredfields.EraseResetSF;
 import com.bytezone.dm3270.structuredfields.Outbound3270DS;
@@ -26,11 +27,10 @@ public class WriteStructuredFieldCommand extends Command {
   private final List<StructuredField> structuredFields =
       new ArrayList<>();
   private final List<Buffer> replies = new ArrayList<>();
-  private final Charset charset;
 
-  public WriteStructuredFieldCommand(byte[] buffer, int offset, int length, Charset charset) {
+  public WriteStructuredFieldCommand(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     super(buffer, offset, length);
-    this.charset = charset;
 
     assert buffer[offset] == Command.WRITE_STRUCTURED_FIELD_11
         || buffer[offset] == Command.WRITE_STRUCTURED_FIELD_F3;
@@ -45,12 +45,12 @@ public class WriteStructuredFieldCommand extends Command {
       switch (buffer[ptr]) {
         // wrapper for original write commands - W. EW, EWA, EAU
         case StructuredField.OUTBOUND_3270DS:
-          structuredFields.add(new Outbound3270DS(buffer, ptr, size, charset));
+          structuredFields.add(new Outbound3270DS(buffer, ptr, size, charset, codec));
           break;
 
         // wrapper for original read commands - RB, RM, RMA
         case StructuredField.READ_PARTITION:
-          structuredFields.add(new ReadPartitionSF(buffer, ptr, size, charset));
+          structuredFields.add(new ReadPartitionSF(buffer, ptr, size, charset, codec));
           break;
 
         case StructuredField.RESET_PARTITION:
@@ -101,7 +101,7 @@ public class WriteStructuredFieldCommand extends Command {
       return Optional.of(replies.get(0));
     }
 
-    MultiBuffer multiBuffer = new MultiBuffer(charset);
+    MultiBuffer multiBuffer = new MultiBuffer();
     for (Buffer reply : replies) {
       multiBuffer.addBuffer(reply);
     }
@@ -76,6 +76,90 @@ public class Cursor {
     }
   }
 
+  /**
+   * Types the given text from the cursor position, as {@link #typeChar(byte)} would do with each
+   * of its chars, but notifying cursor and field changes only once.
+   *
+   * @param text the text to type.
+   * @return the number of typed screen positions, which differs from the number of typed chars
+   * when the text contains double byte chars. Typing stops when the cursor is not in an
+   * unprotected field or, in insert mode, when the field is full.
+   */
+  public int typeText(CharSequence text) {
+    byte[] values = screen.getTextBuffer(text.length());
+    return typeChars(values, screen.getCharset().encode(text, values, 0));
+  }
+
+  /**
+   * Types the given chars from the cursor position, as {@link #typeChar(byte)} would do with each
+   * of them, but filling each field with a single shift (in insert mode) and copy, and notifying
+   * cursor and field changes only once.
+   *
+   * @param values the chars to type, in the screen charset.
+   * @return the number of typed chars. Typing stops when the cursor is not in an unprotected field
+   * or, in insert mode, when the field is full.
+   */
+  public int typeChars(byte[] values) {
+    return typeChars(values, values.length);
+  }
+
+  private int typeChars(byte[] values, int length) {
+    int oldPosition = currentPosition;
+    Field oldField = currentField;
+    int typed = 0;
+    while (typed < length && currentField != null && currentField.isUnprotected()
+        && currentField.getCursorOffset() > 0) {
+      int start = currentField.getCursorOffset();
+      int end = currentField.getDisplayLength();
+      int count = Math.min(length - typed, end - start + 1);
+      if (screen.isInsertMode()) {
+        int free = 0;
+        while (free < count && isBlank(currentField.getByteAt(end - free))) {
+          free++;
+        }
+        count = free;
+        currentField.shift(start, end, count);
+      }
+      if (count == 0) {
+        break;
+      }
+
+      for (int i = 0; i < count; i++) {
+        screen.getScreenPosition(screen.validate(currentPosition + i))
+            .setChar(values[typed + i]);
+      }
+      currentField.setModified(true);
+      typed += count;
+
+      int newPosition = screen.validate(currentPosition + count);
+      if (currentField.contains(newPosition)) {
+        currentPosition = newPosition;
+        // all chars typed, or the field is full in insert mode
+        break;
+      }
+      Field nextField = currentField.getNextUnprotectedField();
+      if (nextField == null) {
+        currentPosition = newPosition;
+        setCurrentField();
+        break;
+      }
+      currentPosition = nextField.getFirstLocation();
+      currentField = nextField;
+    }
+
+    if (currentPosition != oldPosition) {
+      notifyCursorMove(oldPosition, currentPosition, oldField);
+    }
+    if (currentField != oldField) {
+      notifyFieldChange(oldField, currentField);
+    }
+    return typed;
+  }
+
+  private static boolean isBlank(byte value) {
+    return value == 0x00 || value == 0x40;
+  }
+
   // ---------------------------------------------------------------------------------//
   // Cursor movement
   // ---------------------------------------------------------------------------------//
@@ -121,7 +205,9 @@ public class Cursor {
   // ---------------------------------------------------------------------------------//
 
   private void notifyFieldChange(Field oldField, Field currentField) {
-    fieldChangeListeners.forEach(l -> l.fieldChanged(oldField, currentField));
+    screen.publishSnapshot();
+    screen.getEventDispatcher().dispatch(
+        () -> fieldChangeListeners.forEach(l -> l.fieldChanged(oldField, currentField)));
   }
 
   public void addFieldChangeListener(FieldChangeListener listener) {
@@ -133,8 +219,10 @@ public class Cursor {
   // ---------------------------------------------------------------------------------//
 
   private void notifyCursorMove(int oldLocation, int currentLocation, Field currentField) {
-    cursorMoveListeners
-        .forEach(l -> l.cursorMoved(oldLocation, currentLocation, currentField));
+    // listeners may read the snapshot, so it must include the new location
+    screen.publishSnapshot();
+    screen.getEventDispatcher().dispatch(() -> cursorMoveListeners
+        .forEach(l -> l.cursorMoved(oldLocation, currentLocation, currentField)));
   }
 
   public void addCursorMoveListener(CursorMoveListener listener) {
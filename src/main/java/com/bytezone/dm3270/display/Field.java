@@ -1,7 +1,6 @@
 package com.bytezone.dm3270.display;
 
 import com.bytezone.dm3270.attributes.StartFieldAttribute;
-import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
@@ -24,6 +23,8 @@ public class Field implements Iterable<ScreenPosition> {
   private final List<ScreenPosition> screenPositions;
   private final ScreenDimensions screenDimensions;
   private boolean isCircular;
+  // contexts (colors and highlighting) not yet resolved, in text only mode
+  private boolean contextsPending;
 
   public Field(Screen screen, List<ScreenPosition> positions) {
     this.screen = screen;
@@ -103,6 +104,21 @@ public class Field implements Iterable<ScreenPosition> {
     return this.isCircular;
   }
 
+  void setContextsPending() {
+    contextsPending = true;
+  }
+
+  void discardPendingContexts() {
+    contextsPending = false;
+  }
+
+  void resolveContexts() {
+    if (contextsPending) {
+      contextsPending = false;
+      FieldManager.setContexts(screenPositions, true);
+    }
+  }
+
   public boolean contains(int position) {
     if (startPosition <= endPosition) {
       return position >= startPosition && position <= endPosition;
@@ -140,6 +156,24 @@ public class Field implements Iterable<ScreenPosition> {
     }
   }
 
+  // overwrites each position with the position count places to its left, and keeps the context of
+  // the first position in the inserted ones, as count calls to push() would do
+  void shift(int first, int last, int count) {
+    if (count <= 0) {
+      return;
+    }
+    ScreenContext firstContext = screenPositions.get(first).getScreenContext();
+    for (int i = last; i >= first + count; i--) {
+      ScreenPosition source = screenPositions.get(i - count);
+      ScreenPosition target = screenPositions.get(i);
+      target.setChar(source.getByte());
+      target.setScreenContext(source.getScreenContext());
+    }
+    for (int i = first; i < first + count; i++) {
+      screenPositions.get(i).setScreenContext(firstContext);
+    }
+  }
+
   public byte getByteAt(int position) {
     return screenPositions.get(position).getByte();
   }
@@ -151,28 +185,28 @@ public class Field implements Iterable<ScreenPosition> {
 
     char[] buffer = new char[getDisplayLength()];
     int ptr = 0;
+    // double byte chars take two positions but only one char in the text
+    ScreenTextDecoder decoder = new ScreenTextDecoder(screen.getCharset(), false);
 
     for (ScreenPosition screenPosition : screenPositions) {
       // skip the start field attribute
       if (!screenPosition.isStartField()) {
         if (ptr < buffer.length) {
-          buffer[ptr++] = screenPosition.getChar();
+          ptr = decoder.decode(screenPosition, buffer, ptr);
         } else {
           LOG.warn("Too long: {}", ptr);
         }
       }
     }
 
-    return new String(buffer);
+    return new String(buffer, 0, ptr);
   }
 
   public void setText(String text) {
-    try {
+    screen.getSessionExecutor().run(() -> {
       erase();                                     // sets the field to modified
-      setText(text.getBytes(screen.getCharset().name()));
-    } catch (UnsupportedEncodingException e) {
-      e.printStackTrace();
-    }
+      writeText(text);
+    });
   }
 
   public void setText(byte[] buffer) {
@@ -187,6 +221,20 @@ public class Field implements Iterable<ScreenPosition> {
     }
   }
 
+  void writeText(CharSequence text) {
+    byte[] buffer = screen.getTextBuffer(text.length());
+    int length = screen.getCharset().encode(text, buffer, 0);
+    int ptr = 1;
+    for (int i = 0; i < length; i++) {
+      if (ptr < screenPositions.size()) {
+        screenPositions.get(ptr++).setChar(buffer[i]);
+      } else {
+        LOG.warn("Buffer overrun");
+        break;
+      }
+    }
+  }
+
   @Override
   public String toString() {
     return String.format("%04d-%04d %s [%s]", startPosition, endPosition,
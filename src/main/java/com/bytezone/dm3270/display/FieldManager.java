@@ -1,9 +1,14 @@
 package com.bytezone.dm3270.display;
 
 import com.bytezone.dm3270.attributes.Attribute;
+import com.bytezone.dm3270.attributes.Charset;
+import com.bytezone.dm3270.attributes.ResetAttribute;
 import com.bytezone.dm3270.attributes.StartFieldAttribute;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -16,9 +21,19 @@ public class FieldManager {
   private ScreenDimensions screenDimensions;
 
   private final List<Field> fields = new CopyOnWriteArrayList<>();
-  private final List<Field> unprotectedFields = new ArrayList<>();
+  // replaced (never modified) when fields are rebuilt, so it can be read from other threads
+  private volatile List<Field> unprotectedFields = Collections.emptyList();
 
   private final Set<ScreenChangeListener> screenChangeListeners = ConcurrentHashMap.newKeySet();
+  private boolean screenChangePending;
+
+  // built on first label lookup and discarded each time fields are rebuilt
+  private volatile Map<String, LabelFields> labelIndex;
+  private volatile int fieldsGeneration;
+
+  private volatile ScreenClassifier screenClassifier;
+  // replaced each time fields are rebuilt, so it can be read from other threads
+  private volatile ScreenTemplate screenTemplate;
 
   public FieldManager(Screen screen, ScreenDimensions screenDimensions) {
     this.screen = screen;
@@ -32,8 +47,13 @@ public class FieldManager {
   }
 
   public void reset() {
+    // positions no longer in a field keep their current context
+    fields.forEach(Field::discardPendingContexts);
+    fieldsGeneration++;
+    labelIndex = null;
     fields.clear();
-    unprotectedFields.clear();
+    unprotectedFields = Collections.emptyList();
+    screenTemplate = null;
   }
 
   // this is called after the pen and screen positions have been modified
@@ -43,18 +63,25 @@ public class FieldManager {
     //to avoid inefficiency when coping and adding in a 
     // CopyOnWriteArrayList we use this list to add all at once;
     List<Field> auxFields = new ArrayList<>();
+    boolean textOnly = screen.isTextOnly();
     for (List<ScreenPosition> protoField : divide(screenPositions)) {
-      auxFields.add(new Field(screen, protoField));
-      setContexts(protoField);
+      Field field = new Field(screen, protoField);
+      auxFields.add(field);
+      if (textOnly) {
+        deferContexts(field, protoField);
+      } else {
+        setContexts(protoField, false);
+      }
     }
 
     fields.addAll(auxFields);
     // link uprotected fields
+    List<Field> auxUnprotectedFields = new ArrayList<>();
     Field previousUnprotectedField = null;
 
     for (Field field : fields) {
       if (field.isUnprotected()) {
-        unprotectedFields.add(field);
+        auxUnprotectedFields.add(field);
         if (previousUnprotectedField != null) {
           previousUnprotectedField.linkToNext(field);
         }
@@ -62,10 +89,10 @@ public class FieldManager {
       }
     }
 
-    if (unprotectedFields.size() > 0) {
+    if (auxUnprotectedFields.size() > 0) {
       // link first unprotected field to the last one
-      Field firstField = unprotectedFields.get(0);
-      Field lastField = unprotectedFields.get(unprotectedFields.size() - 1);
+      Field firstField = auxUnprotectedFields.get(0);
+      Field lastField = auxUnprotectedFields.get(auxUnprotectedFields.size() - 1);
       lastField.linkToNext(firstField);
 
       // link protected fields to unprotected fields
@@ -79,11 +106,46 @@ public class FieldManager {
         }
       }
     }
+    unprotectedFields = Collections.unmodifiableList(auxUnprotectedFields);
     configureCircularField();
+    ScreenClassifier classifier = screenClassifier;
+    if (classifier != null) {
+      screenTemplate = classifier.classify(fields, screen);
+    }
+    if (screen.areChangesHeld()) {
+      screenChangePending = true;
+    } else {
+      notifyScreenChanged();
+    }
+  }
+
+  // notifies the screen change held while receiving a burst of records, if any
+  void releaseScreenChange() {
+    if (screenChangePending) {
+      screenChangePending = false;
+      notifyScreenChanged();
+    }
+  }
+
+  private void notifyScreenChanged() {
     screenWatcher.check();
     fireScreenChanged(screenWatcher);
   }
 
+  public void setScreenClassifier(ScreenClassifier screenClassifier) {
+    this.screenClassifier = screenClassifier;
+  }
+
+  /**
+   * Gets the template matching the current screen, as classified when fields were last built.
+   *
+   * @return the first registered template matching the screen, or empty if none matches or no
+   * classifier is set.
+   */
+  public Optional<ScreenTemplate> getScreenTemplate() {
+    return Optional.ofNullable(screenTemplate);
+  }
+
   private void configureCircularField() {
     if (unprotectedFields.isEmpty()) {
       return;
@@ -116,9 +178,10 @@ public class FieldManager {
   }
 
   public Optional<Field> eraseAllUnprotected() {
-    unprotectedFields.parallelStream().forEach(f -> f.clearData(true));
+    List<Field> erasedFields = unprotectedFields;
+    erasedFields.parallelStream().forEach(f -> f.clearData(true));
 
-    return unprotectedFields.stream().findFirst();
+    return erasedFields.stream().findFirst();
   }
 
   // ---------------------------------------------------------------------------------//
@@ -154,6 +217,154 @@ public class FieldManager {
     return rowFields;
   }
 
+  /**
+   * Gets the unprotected field which follows a protected field with the given label.
+   * <p>
+   * A label matches a protected field when it is equal to its trimmed text or to any of the
+   * blank separated tokens in it. When several fields match, the first one in the screen is used.
+   *
+   * @param label the text identifying the field.
+   * @return the unprotected field following the label, or empty if no protected field matches.
+   * @see #getLabelField(String)
+   */
+  public Optional<Field> getFieldByLabel(String label) {
+    return getLabelField(label).map(Field::getNextUnprotectedField);
+  }
+
+  /**
+   * Gets the protected field with the given label, using the same matching rules as {@link
+   * #getFieldByLabel(String)}.
+   * <p>
+   * Labels which are only part of a word are not matched, so a previous field containing the label
+   * inside a longer word (like "No:" in "CustomerNo:") is not considered.
+   *
+   * @param label the text identifying the field.
+   * @return the first protected field with the label, or empty if no protected field matches.
+   */
+  public Optional<Field> getLabelField(String label) {
+    LabelFields labelFields = getLabelIndex().get(label);
+    return Optional.ofNullable(labelFields != null ? labelFields.tokenField : null);
+  }
+
+  /**
+   * Gets the first protected field in the screen containing the given label, when the label is
+   * indexed (it is equal to the trimmed text of a protected field or to any of its tokens, as in
+   * {@link #getLabelField(String)}).
+   * <p>
+   * Unlike {@link #getLabelField(String)}, a previous field containing the label inside a longer
+   * word is considered, so the result is the protected field where the label first appears in the
+   * screen text. This is resolved once, when the index is built, so lookups don't scan the screen.
+   *
+   * @param label the text identifying the field.
+   * @return the first protected field containing the label, or empty if the label is not indexed.
+   * Labels which are not indexed may still be part of a word in the screen, so callers have to
+   * look for them in the screen text.
+   */
+  public Optional<Field> getFirstLabelField(String label) {
+    LabelFields labelFields = getLabelIndex().get(label);
+    return Optional.ofNullable(labelFields != null ? labelFields.firstField : null);
+  }
+
+  private Map<String, LabelFields> getLabelIndex() {
+    Map<String, LabelFields> index = labelIndex;
+    if (index == null) {
+      int generation = fieldsGeneration;
+      index = buildLabelIndex();
+      if (generation == fieldsGeneration) {
+        labelIndex = index;
+      }
+    }
+    return index;
+  }
+
+  private Map<String, LabelFields> buildLabelIndex() {
+    // fields are kept in screen order, so the first field with each label is the one kept
+    Map<String, Field> tokenFields = new HashMap<>();
+    for (Field field : fields) {
+      if (!field.isProtected() || field.isHidden() || field.getNextUnprotectedField() == null) {
+        continue;
+      }
+      String text = field.getText().trim();
+      if (text.isEmpty()) {
+        continue;
+      }
+      tokenFields.putIfAbsent(text, field);
+      int tokenStart = -1;
+      for (int i = 0; i <= text.length(); i++) {
+        boolean blank = i == text.length() || text.charAt(i) <= ' ';
+        if (blank && tokenStart >= 0) {
+          tokenFields.putIfAbsent(text.substring(tokenStart, i), field);
+          tokenStart = -1;
+        } else if (!blank && tokenStart < 0) {
+          tokenStart = i;
+        }
+      }
+    }
+    if (tokenFields.isEmpty()) {
+      return Collections.emptyMap();
+    }
+
+    String screenText = new String(getScreenChars());
+    Field[] positionFields = getPositionFields(screenText.length());
+    Map<String, LabelFields> index = new HashMap<>(tokenFields.size() * 2);
+    tokenFields.forEach((label, tokenField) -> index.put(label, new LabelFields(tokenField,
+        findFirstLabelField(label, tokenField, screenText, positionFields))));
+    return index;
+  }
+
+  /*
+   * A previous protected field may contain the label as part of a word, and in such case that one
+   * is the first match on screen. Otherwise the field with the label token is the first one.
+   */
+  private Field findFirstLabelField(String label, Field tokenField, String screenText,
+      Field[] positionFields) {
+    int endPosition = tokenField.getFirstLocation();
+    int pos = screenText.indexOf(label);
+    while (pos >= 0 && pos < endPosition) {
+      Field field = positionFields[pos];
+      if (field != null && field.isProtected()) {
+        return field;
+      }
+      pos = screenText.indexOf(label, pos + 1);
+    }
+    return tokenField;
+  }
+
+  // screen characters, with hidden fields contents as blanks
+  private char[] getScreenChars() {
+    char[] chars = new char[screenDimensions.size];
+    ScreenTextDecoder decoder = new ScreenTextDecoder(screen.getCharset(), true);
+    boolean visible = true;
+    for (int pos = 0; pos < chars.length; pos++) {
+      ScreenPosition sp = screen.getScreenPosition(pos);
+      if (sp.isStartField()) {
+        visible = sp.getStartFieldAttribute().isVisible();
+        decoder.reset();
+      }
+      if (visible) {
+        decoder.decode(sp, chars, pos);
+      } else {
+        chars[pos] = ' ';
+      }
+    }
+    return chars;
+  }
+
+  // the field containing each screen position, as getFieldAt but without searching the fields
+  private Field[] getPositionFields(int size) {
+    Field[] positionFields = new Field[size];
+    for (Field field : fields) {
+      int pos = field.getFirstLocation() == 0 ? size - 1 : field.getFirstLocation() - 1;
+      int endPosition = field.getEndPosition();
+      positionFields[pos] = field;
+      while (pos != endPosition) {
+        pos = (pos + 1) % size;
+        positionFields[pos] = field;
+      }
+    }
+    return positionFields;
+  }
+
   public boolean textMatches(int fieldNo, String text) {
     return text.equals(fields.get(fieldNo).getText());
   }
@@ -191,7 +402,10 @@ public class FieldManager {
   // ---------------------------------------------------------------------------------//
 
   private void fireScreenChanged(ScreenWatcher screenWatcher) {
-    screenChangeListeners.forEach(listener -> listener.screenChanged(screenWatcher));
+    // listeners may read the snapshot, so it must include the change
+    screen.publishSnapshot();
+    screen.getEventDispatcher().dispatch(
+        () -> screenChangeListeners.forEach(listener -> listener.screenChanged(screenWatcher)));
   }
 
   public void addScreenChangeListener(ScreenChangeListener listener) {
@@ -251,20 +465,21 @@ public class FieldManager {
   // Process a field's ScreenPositions
   // ---------------------------------------------------------------------------------//
 
-  private void setContexts(List<ScreenPosition> positions) {
+  // when keepGraphic is set, the APL charset flag of each position is not modified
+  static void setContexts(List<ScreenPosition> positions, boolean keepGraphic) {
     StartFieldAttribute startFieldAttribute = positions.get(0).getStartFieldAttribute();
     ScreenContext defaultContext = startFieldAttribute.process(null, null);
 
     if (startFieldAttribute.isExtended()) {
-      setExtendedContext(defaultContext, positions);
+      setExtendedContext(defaultContext, positions, keepGraphic);
     } else {
-      positions.forEach(sp -> sp.setScreenContext(defaultContext));
+      positions.forEach(sp -> setContext(sp, defaultContext, keepGraphic));
     }
 
   }
 
-  private void setExtendedContext(ScreenContext defaultContext,
-      List<ScreenPosition> positions) {
+  private static void setExtendedContext(ScreenContext defaultContext,
+      List<ScreenPosition> positions, boolean keepGraphic) {
     boolean first = true;
     ScreenContext currentContext = defaultContext;
 
@@ -278,8 +493,58 @@ public class FieldManager {
         first = false;
         defaultContext = currentContext;
       }
-      screenPosition.setScreenContext(currentContext);
+      setContext(screenPosition, currentContext, keepGraphic);
+    }
+  }
+
+  private static void setContext(ScreenPosition screenPosition, ScreenContext context,
+      boolean keepGraphic) {
+    screenPosition.setScreenContext(
+        keepGraphic ? context.withGraphic(screenPosition.isGraphic()) : context);
+  }
+
+  // in text only mode only the APL charset flag (required to decode chars) is set, as
+  // setExtendedContext would do, and the rest of the context is resolved on first access
+  private static void deferContexts(Field field, List<ScreenPosition> positions) {
+    field.setContextsPending();
+    if (!positions.get(0).getStartFieldAttribute().isExtended()) {
+      positions.forEach(sp -> sp.deferScreenContext(field, false));
+      return;
     }
+
+    boolean first = true;
+    boolean defaultGraphic = false;
+    boolean graphic = false;
+
+    for (ScreenPosition screenPosition : positions) {
+      for (Attribute attribute : screenPosition.getAttributes()) {
+        if (attribute instanceof Charset) {
+          graphic = ((Charset) attribute).isAplCharset();
+        } else if (attribute instanceof ResetAttribute) {
+          graphic = defaultGraphic;
+        }
+      }
+
+      if (first) {
+        first = false;
+        defaultGraphic = graphic;
+      }
+      screenPosition.deferScreenContext(field, graphic);
+    }
+  }
+
+  private static class LabelFields {
+
+    // first field with the label as its text or as one of its tokens
+    private final Field tokenField;
+    // first field containing the label in the screen text
+    private final Field firstField;
+
+    private LabelFields(Field tokenField, Field firstField) {
+      this.tokenField = tokenField;
+      this.firstField = firstField;
+    }
+
   }
 
 }
@@ -13,6 +13,9 @@ public interface Pen extends Iterable<ScreenPosition> {
 
   void clearScreen();
 
+  // clears the screen and restores the default context of all positions, as in a new pen
+  void resetScreen();
+
   void startField(StartFieldAttribute startFieldAttribute);
 
   void addAttribute(Attribute attribute);
@@ -35,8 +38,6 @@ public interface Pen extends Iterable<ScreenPosition> {
 
   int validate(int position);
 
-  void setScreenDimensions(ScreenDimensions screenDimensions);
-
   Iterable<ScreenPosition> fromCurrentPosition();
 
 }
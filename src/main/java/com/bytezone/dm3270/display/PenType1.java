@@ -17,7 +17,7 @@ class PenType1 implements Pen {
 
   private int currentPosition;
   private boolean formattedScreen;
-  private ScreenDimensions screenDimensions;
+  private final ScreenDimensions screenDimensions;
 
   private final List<Attribute> pendingAttributes = new ArrayList<>();
 
@@ -42,6 +42,15 @@ class PenType1 implements Pen {
     formattedScreen = false;
   }
 
+  @Override
+  public void resetScreen() {
+    clearScreen();
+    for (ScreenPosition screenPosition : screenPositions) {
+      screenPosition.resetContext();
+    }
+    pendingAttributes.clear();
+  }
+
   @Override
   public void startField(StartFieldAttribute startFieldAttribute) {
     formattedScreen = true;
@@ -197,11 +206,6 @@ class PenType1 implements Pen {
     return position;
   }
 
-  @Override
-  public void setScreenDimensions(ScreenDimensions screenDimensions) {
-    this.screenDimensions = screenDimensions;
-  }
-
   @Override
   public Iterable<ScreenPosition> fromCurrentPosition() {
     return () ->
@@ -1,16 +1,18 @@
 package com.bytezone.dm3270.display;
 
 import com.bytezone.dm3270.Charset;
+import com.bytezone.dm3270.EventDispatcher;
+import com.bytezone.dm3270.SessionExecutor;
 import com.bytezone.dm3270.application.ConsolePane;
 import com.bytezone.dm3270.application.KeyboardStatusChangedEvent;
 import com.bytezone.dm3270.application.KeyboardStatusListener;
 import com.bytezone.dm3270.attributes.Attribute;
 import com.bytezone.dm3270.commands.AIDCommand;
 import com.bytezone.dm3270.commands.Command;
-import com.bytezone.dm3270.orders.BufferAddress;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import com.bytezone.dm3270.streams.TelnetState;
 import com.bytezone.dm3270.structuredfields.SetReplyModeSF;
-import java.io.UnsupportedEncodingException;
+import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
@@ -25,12 +27,16 @@ public class Screen implements DisplayScreen {
       {Attribute.XA_HIGHLIGHTING, Attribute.XA_FGCOLOR, Attribute.XA_CHARSET,
           Attribute.XA_BGCOLOR, Attribute.XA_TRANSPARENCY};
 
-  private ScreenPosition[] screenPositions;
   private final FieldManager fieldManager;
+  // buffers of both screen sizes are kept for the whole session, so switching creates no garbage
+  private final ScreenBuffer defaultBuffer;
+  private final ScreenBuffer alternateBuffer;
+  private ScreenPosition[] screenPositions;
   private ScreenPacker screenPacker;
 
   private final TelnetState telnetState;
   private final Charset charset;
+  private final BufferAddressCodec bufferAddressCodec;
 
   private final ScreenDimensions defaultScreenDimensions;
   private final ScreenDimensions alternateScreenDimensions;
@@ -51,6 +57,18 @@ public class Screen implements DisplayScreen {
   private boolean readModifiedAll = false;
 
   private final Set<KeyboardStatusListener> keyboardChangeListeners = ConcurrentHashMap.newKeySet();
+  private volatile EventDispatcher eventDispatcher = new EventDispatcher();
+  private volatile SessionExecutor sessionExecutor = new SessionExecutor();
+
+  private volatile boolean coalescingChanges;
+  private volatile boolean textOnly;
+  private volatile boolean changesHeld;
+  private boolean keyboardChangePending;
+  private String pendingKeyName;
+
+  private volatile ScreenSnapshot snapshot;
+  // reused to encode typed text, since the screen is only modified in the session executor
+  private byte[] textBuffer = new byte[0];
 
   public enum ScreenOption {
     DEFAULT, ALTERNATE
@@ -68,22 +86,117 @@ public class Screen implements DisplayScreen {
     ScreenDimensions screenDimensions = currentOption.equals(ScreenOption.DEFAULT)
         ? defaultScreenDimensions : alternateScreenDimensions;
 
+    bufferAddressCodec = new BufferAddressCodec(screenDimensions.columns);
     cursor = new Cursor(this);
 
     fieldManager = new FieldManager(this, screenDimensions);
 
-    screenPositions = new ScreenPosition[screenDimensions.size];
-    pen = Pen.getInstance(screenPositions, screenDimensions, charset);
-
-    screenPacker = new ScreenPacker(pen, fieldManager, charset);
+    defaultBuffer = new ScreenBuffer(defaultScreenDimensions);
+    alternateBuffer = alternateScreenDimensions == null ? null
+        : new ScreenBuffer(alternateScreenDimensions);
 
     setCurrentScreen(currentOption);
+    publishSnapshot();
   }
 
   public TelnetState getTelnetState() {
     return telnetState;
   }
 
+  public EventDispatcher getEventDispatcher() {
+    return eventDispatcher;
+  }
+
+  public void setEventDispatcher(EventDispatcher eventDispatcher) {
+    this.eventDispatcher = eventDispatcher;
+  }
+
+  public SessionExecutor getSessionExecutor() {
+    return sessionExecutor;
+  }
+
+  public void setSessionExecutor(SessionExecutor sessionExecutor) {
+    this.sessionExecutor = sessionExecutor;
+  }
+
+  public boolean isCoalescingChanges() {
+    return coalescingChanges;
+  }
+
+  public void setCoalescingChanges(boolean coalescingChanges) {
+    this.coalescingChanges = coalescingChanges;
+  }
+
+  public boolean isTextOnly() {
+    return textOnly;
+  }
+
+  public void setTextOnly(boolean textOnly) {
+    this.textOnly = textOnly;
+  }
+
+  // called before processing received data, so field building and events are done once per burst
+  public void holdChanges() {
+    if (coalescingChanges) {
+      changesHeld = true;
+    }
+  }
+
+  // called once all the received data has been processed
+  public void releaseChanges() {
+    if (!changesHeld) {
+      return;
+    }
+    changesHeld = false;
+    publishSnapshot();
+    fieldManager.releaseScreenChange();
+    if (keyboardChangePending) {
+      keyboardChangePending = false;
+      fireKeyboardStatusChange(pendingKeyName);
+    }
+  }
+
+  boolean areChangesHeld() {
+    return changesHeld;
+  }
+
+  /**
+   * Gets a copy of the screen contents.
+   * <p>
+   * This can be safely called from any thread, and never waits for the screen to be modified,
+   * since a new copy is published each time the screen is changed.
+   *
+   * @return the screen contents as they were after the last completed change.
+   */
+  public ScreenSnapshot getSnapshot() {
+    return snapshot;
+  }
+
+  /**
+   * Gets the fields of the screen when the current snapshot was taken.
+   * <p>
+   * The list is consistent with the snapshot contents, but the fields contents are read from the
+   * screen, so they may change while data is being received. Use the snapshot fields for an
+   * immutable copy.
+   *
+   * @return the fields of the screen, in screen order.
+   */
+  public List<Field> getSnapshotFields() {
+    return snapshot.getScreenFields();
+  }
+
+  // must be called in the session executor after modifying the screen. While changes are held the
+  // snapshot is only published once they are released
+  public void publishSnapshot() {
+    if (!changesHeld) {
+      snapshot = ScreenSnapshot.take(this, screenPositions, snapshot);
+    }
+  }
+
+  public BufferAddressCodec getBufferAddressCodec() {
+    return bufferAddressCodec;
+  }
+
   public void setCurrentScreen(ScreenOption value) {
     if (currentScreen == value) {
       return;
@@ -92,10 +205,12 @@ public class Screen implements DisplayScreen {
     currentScreen = value;
     ScreenDimensions screenDimensions = getScreenDimensions();
 
-    pen.setScreenDimensions(screenDimensions);
+    ScreenBuffer buffer = value == ScreenOption.DEFAULT ? defaultBuffer : alternateBuffer;
+    screenPositions = buffer.screenPositions;
+    pen = buffer.pen;
+    screenPacker = buffer.screenPacker;
     fieldManager.setScreenDimensions(screenDimensions);
-
-    BufferAddress.setScreenWidth(screenDimensions.columns);
+    bufferAddressCodec.setColumns(screenDimensions.columns);
   }
 
   public ScreenOption getCurrentScreenOption() {
@@ -187,23 +302,25 @@ public class Screen implements DisplayScreen {
   }
 
   public void setFieldText(Field field, String text) {
-    field.setText(getTextBytes(text));
+    field.writeText(text);
     field.setModified(true);
   }
 
-  private byte[] getTextBytes(String text) {
-    try {
-      return text.getBytes(charset.name());
-    } catch (UnsupportedEncodingException e) {
-      throw new RuntimeException(e);
+  public void setPositionText(int position, String text) {
+    byte[] buffer = getTextBuffer(text.length());
+    int length = charset.encode(text, buffer, 0);
+    for (int i = 0; i < length && position + i < screenPositions.length; i++) {
+      screenPositions[position + i].setChar(buffer[i]);
     }
   }
 
-  public void setPositionText(int position, String text) {
-    byte[] bytes = getTextBytes(text);
-    for (int i = 0; i < bytes.length && position + i < screenPositions.length; i++) {
-      screenPositions[position + i].setChar(bytes[i]);
+  // buffer where to encode a text of the given length, only valid until next call
+  byte[] getTextBuffer(int length) {
+    int size = charset.getMaxEncodedLength(length);
+    if (textBuffer.length < size) {
+      textBuffer = new byte[size];
     }
+    return textBuffer;
   }
 
   // ---------------------------------------------------------------------------------//
@@ -228,14 +345,8 @@ public class Screen implements DisplayScreen {
   @Override
   public void clearScreen(ScreenOption requestedScreenOption) {
     if (!requestedScreenOption.equals(currentScreen)) {
-      ScreenDimensions size = requestedScreenOption.equals(ScreenOption.DEFAULT)
-          ? defaultScreenDimensions
-          : alternateScreenDimensions;
-      screenPositions = new ScreenPosition[size.size];
-      pen = Pen.getInstance(screenPositions, size, charset);
-
-      screenPacker = new ScreenPacker(pen, fieldManager, charset);
-      currentScreen = requestedScreenOption;
+      setCurrentScreen(requestedScreenOption);
+      pen.resetScreen();
       sscpLuData = false;
       fieldManager.reset();
       return;
@@ -327,9 +438,16 @@ public class Screen implements DisplayScreen {
   // ---------------------------------------------------------------------------------//
 
   private void fireKeyboardStatusChange(String keyName) {
+    if (changesHeld) {
+      keyboardChangePending = true;
+      pendingKeyName = keyName;
+      return;
+    }
+    publishSnapshot();
     KeyboardStatusChangedEvent evt =
         new KeyboardStatusChangedEvent(insertMode, keyboardLocked, keyName);
-    keyboardChangeListeners.forEach(l -> l.keyboardStatusChanged(evt));
+    eventDispatcher
+        .dispatch(() -> keyboardChangeListeners.forEach(l -> l.keyboardStatusChanged(evt)));
   }
 
   public void addKeyboardStatusChangeListener(KeyboardStatusListener listener) {
@@ -340,4 +458,18 @@ public class Screen implements DisplayScreen {
     keyboardChangeListeners.remove(listener);
   }
 
+  private class ScreenBuffer {
+
+    private final ScreenPosition[] screenPositions;
+    private final Pen pen;
+    private final ScreenPacker screenPacker;
+
+    private ScreenBuffer(ScreenDimensions screenDimensions) {
+      screenPositions = new ScreenPosition[screenDimensions.size];
+      pen = Pen.getInstance(screenPositions, screenDimensions, charset);
+      screenPacker = new ScreenPacker(pen, fieldManager, charset, bufferAddressCodec);
+    }
+
+  }
+
 }
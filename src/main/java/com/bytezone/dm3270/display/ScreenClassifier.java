@@ -0,0 +1,212 @@
+package com.bytezone.dm3270.display;
+
+import com.bytezone.dm3270.display.ScreenTemplate.FieldSpec;
+import com.bytezone.dm3270.display.ScreenTemplate.Literal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Identifies the current screen of terminal clients among a set of registered {@link
+ * ScreenTemplate}s.
+ * <p>
+ * Templates are compiled, for each screen size in use, into an index from field layout keys
+ * (location, length and protection of a field) to the templates requiring such field. Each
+ * template is indexed by the field shared with fewer templates, so classifying a screen only
+ * requires a single pass over its fields to find candidate templates, and only candidates are
+ * verified against the rest of their fields and literals. Templates without fields are always
+ * verified.
+ * <p>
+ * When several templates match a screen, the first registered one is used. The same classifier
+ * can be shared by many clients and templates may be added at any time, but changes to a template
+ * after it has been added are ignored.
+ */
+public class ScreenClassifier {
+
+  private final List<CompiledTemplate> templates = new ArrayList<>();
+  // compiled indexes by screen size, discarded when templates are added
+  private final Map<Long, Index> indexes = new ConcurrentHashMap<>();
+
+  public synchronized void addTemplate(ScreenTemplate template) {
+    templates.add(new CompiledTemplate(template));
+    indexes.clear();
+  }
+
+  public synchronized List<ScreenTemplate> getTemplates() {
+    List<ScreenTemplate> ret = new ArrayList<>(templates.size());
+    templates.forEach(t -> ret.add(t.template));
+    return Collections.unmodifiableList(ret);
+  }
+
+  ScreenTemplate classify(List<Field> fields, Screen screen) {
+    ScreenDimensions screenDimensions = screen.getScreenDimensions();
+    Index index = getIndex(screenDimensions);
+    if (index.templates.length == 0) {
+      return null;
+    }
+    long[] layout = new long[fields.size()];
+    BitSet candidates = (BitSet) index.unanchoredTemplates.clone();
+    int i = 0;
+    for (Field field : fields) {
+      long key = getFieldKey(field.getFirstLocation(), field.getDisplayLength(),
+          field.isProtected());
+      layout[i++] = key;
+      BitSet anchored = index.anchoredTemplates.get(key);
+      if (anchored != null) {
+        candidates.or(anchored);
+      }
+    }
+    if (candidates.isEmpty()) {
+      return null;
+    }
+    Arrays.sort(layout);
+    for (int t = candidates.nextSetBit(0); t >= 0; t = candidates.nextSetBit(t + 1)) {
+      IndexedTemplate template = index.templates[t];
+      if (template.matches(layout, screen)) {
+        return template.template;
+      }
+    }
+    return null;
+  }
+
+  private Index getIndex(ScreenDimensions screenDimensions) {
+    long sizeKey = ((long) screenDimensions.rows << 32) | screenDimensions.columns;
+    Index index = indexes.get(sizeKey);
+    if (index == null) {
+      synchronized (this) {
+        index = indexes.computeIfAbsent(sizeKey, k -> new Index(templates, screenDimensions));
+      }
+    }
+    return index;
+  }
+
+  private static long getFieldKey(int location, int length, boolean protectedField) {
+    return ((long) location << 32) | ((long) length << 1) | (protectedField ? 1 : 0);
+  }
+
+  // template with its fields and literals copied when added
+  private static class CompiledTemplate {
+
+    private final ScreenTemplate template;
+    private final List<FieldSpec> fields;
+    private final List<Literal> literals;
+
+    private CompiledTemplate(ScreenTemplate template) {
+      this.template = template;
+      this.fields = new ArrayList<>(template.getFields());
+      this.literals = new ArrayList<>(template.getLiterals());
+    }
+
+  }
+
+  private static class Index {
+
+    private final IndexedTemplate[] templates;
+    private final Map<Long, BitSet> anchoredTemplates = new HashMap<>();
+    private final BitSet unanchoredTemplates = new BitSet();
+
+    private Index(List<CompiledTemplate> compiledTemplates, ScreenDimensions screenDimensions) {
+      List<IndexedTemplate> indexed = new ArrayList<>();
+      Map<Long, Integer> keyUsages = new HashMap<>();
+      for (CompiledTemplate compiled : compiledTemplates) {
+        IndexedTemplate template = IndexedTemplate.fromTemplate(compiled, screenDimensions);
+        // templates beyond the screen limits never match screens of this size
+        if (template != null) {
+          indexed.add(template);
+          Arrays.stream(template.fieldKeys).distinct()
+              .forEach(key -> keyUsages.merge(key, 1, Integer::sum));
+        }
+      }
+      templates = indexed.toArray(new IndexedTemplate[0]);
+      for (int i = 0; i < templates.length; i++) {
+        long[] fieldKeys = templates[i].fieldKeys;
+        if (fieldKeys.length == 0) {
+          unanchoredTemplates.set(i);
+          continue;
+        }
+        long anchor = fieldKeys[0];
+        for (long key : fieldKeys) {
+          if (keyUsages.get(key) < keyUsages.get(anchor)) {
+            anchor = key;
+          }
+        }
+        anchoredTemplates.computeIfAbsent(anchor, k -> new BitSet()).set(i);
+      }
+    }
+
+  }
+
+  private static class IndexedTemplate {
+
+    private final ScreenTemplate template;
+    private final long[] fieldKeys;
+    private final int[] literalLocations;
+    private final String[] literalTexts;
+
+    private IndexedTemplate(ScreenTemplate template, long[] fieldKeys, int[] literalLocations,
+        String[] literalTexts) {
+      this.template = template;
+      this.fieldKeys = fieldKeys;
+      this.literalLocations = literalLocations;
+      this.literalTexts = literalTexts;
+    }
+
+    private static IndexedTemplate fromTemplate(CompiledTemplate compiled,
+        ScreenDimensions screenDimensions) {
+      long[] fieldKeys = new long[compiled.fields.size()];
+      for (int i = 0; i < fieldKeys.length; i++) {
+        FieldSpec field = compiled.fields.get(i);
+        if (!isInScreen(field.coordinates, screenDimensions)
+            || field.length >= screenDimensions.size) {
+          return null;
+        }
+        fieldKeys[i] = getFieldKey(field.coordinates.toLocation(screenDimensions.columns),
+            field.length, field.protectedField);
+      }
+      int[] literalLocations = new int[compiled.literals.size()];
+      String[] literalTexts = new String[literalLocations.length];
+      for (int i = 0; i < literalLocations.length; i++) {
+        Literal literal = compiled.literals.get(i);
+        int location = literal.coordinates.toLocation(screenDimensions.columns);
+        if (!isInScreen(literal.coordinates, screenDimensions)
+            || location + literal.text.length() > screenDimensions.size) {
+          return null;
+        }
+        literalLocations[i] = location;
+        literalTexts[i] = literal.text;
+      }
+      return new IndexedTemplate(compiled.template, fieldKeys, literalLocations, literalTexts);
+    }
+
+    private static boolean isInScreen(ScreenCoordinates coordinates,
+        ScreenDimensions screenDimensions) {
+      return coordinates.row <= screenDimensions.rows
+          && coordinates.column <= screenDimensions.columns;
+    }
+
+    private boolean matches(long[] sortedLayout, Screen screen) {
+      for (long key : fieldKeys) {
+        if (Arrays.binarySearch(sortedLayout, key) < 0) {
+          return false;
+        }
+      }
+      for (int i = 0; i < literalLocations.length; i++) {
+        String text = literalTexts[i];
+        int location = literalLocations[i];
+        for (int j = 0; j < text.length(); j++) {
+          if (screen.getScreenPosition(location + j).getChar() != text.charAt(j)) {
+            return false;
+          }
+        }
+      }
+      return true;
+    }
+
+  }
+
+}
@@ -1,51 +1,134 @@
 package com.bytezone.dm3270.display;
 
-import com.bytezone.dm3270.attributes.ColorAttribute;
 import java.awt.Color;
+import java.util.Objects;
 
 public class ScreenContext {
 
-  public static final ScreenContext DEFAULT_CONTEXT = new ScreenContext(ColorAttribute.COLORS[0],
-      ColorAttribute.COLORS[8], (byte) 0, false, false);
+  public static final ScreenContext DEFAULT_CONTEXT = new ScreenContext(TerminalColor.NEUTRAL1,
+      TerminalColor.BLACK, (byte) 0, false, false);
 
-  public final Color foregroundColor;
-  public final Color backgroundColor;
   public final byte highlight;
   public final boolean highIntensity;
   public final boolean isGraphic;
 
-  public ScreenContext(Color foregroundColor, Color backgroundColor, byte highlight,
+  private final TerminalColor terminalForegroundColor;
+  private final TerminalColor terminalBackgroundColor;
+
+  public ScreenContext(TerminalColor foregroundColor, TerminalColor backgroundColor, byte highlight,
       boolean highIntensity, boolean isGraphic) {
-    this.foregroundColor = foregroundColor;
-    this.backgroundColor = backgroundColor;
+    this.terminalForegroundColor = foregroundColor;
+    this.terminalBackgroundColor = backgroundColor;
     this.highlight = highlight;
     this.highIntensity = highIntensity;
     this.isGraphic = isGraphic;
   }
 
+  /**
+   * Creates a context with AWT colors.
+   *
+   * @deprecated use {@link #ScreenContext(TerminalColor, TerminalColor, byte, boolean, boolean)}
+   * instead. Colors must have the same RGB values as one of the {@link TerminalColor}s.
+   */
+  @Deprecated
+  public ScreenContext(Color foregroundColor, Color backgroundColor, byte highlight,
+      boolean highIntensity, boolean isGraphic) {
+    this(TerminalColor.fromAwtColor(foregroundColor), TerminalColor.fromAwtColor(backgroundColor),
+        highlight, highIntensity, isGraphic);
+  }
+
+  public TerminalColor getTerminalForegroundColor() {
+    return terminalForegroundColor;
+  }
+
+  public TerminalColor getTerminalBackgroundColor() {
+    return terminalBackgroundColor;
+  }
+
+  /**
+   * Gets the foreground color as an AWT color, which loads AWT on first use.
+   *
+   * @deprecated use {@link #getTerminalForegroundColor()} instead.
+   */
+  @Deprecated
+  public Color getForegroundColor() {
+    return terminalForegroundColor.toAwtColor();
+  }
+
+  /**
+   * Gets the background color as an AWT color, which loads AWT on first use.
+   *
+   * @deprecated use {@link #getTerminalBackgroundColor()} instead.
+   */
+  @Deprecated
+  public Color getBackgroundColor() {
+    return terminalBackgroundColor.toAwtColor();
+  }
+
+  public ScreenContext withBackgroundColor(TerminalColor color) {
+    return new ScreenContext(terminalForegroundColor, color, highlight, highIntensity, isGraphic);
+  }
+
+  /**
+   * @deprecated use {@link #withBackgroundColor(TerminalColor)} instead.
+   */
+  @Deprecated
   public ScreenContext withBackgroundColor(Color color) {
-    return new ScreenContext(foregroundColor, color, highlight, highIntensity, isGraphic);
+    return withBackgroundColor(TerminalColor.fromAwtColor(color));
   }
 
   public ScreenContext withHighlight(byte highlight) {
-    return new ScreenContext(foregroundColor, backgroundColor, highlight, highIntensity,
-        isGraphic);
+    return new ScreenContext(terminalForegroundColor, terminalBackgroundColor, highlight,
+        highIntensity, isGraphic);
+  }
+
+  public ScreenContext withForeground(TerminalColor color) {
+    return new ScreenContext(color, terminalBackgroundColor, highlight, highIntensity, isGraphic);
   }
 
+  /**
+   * @deprecated use {@link #withForeground(TerminalColor)} instead.
+   */
+  @Deprecated
   public ScreenContext withForeground(Color color) {
-    return new ScreenContext(color, backgroundColor, highlight, highIntensity, isGraphic);
+    return withForeground(TerminalColor.fromAwtColor(color));
   }
 
   public ScreenContext withGraphic(boolean isGraphic) {
-    return new ScreenContext(foregroundColor, backgroundColor, highlight, highIntensity,
+    if (isGraphic == this.isGraphic) {
+      return this;
+    }
+    return new ScreenContext(terminalForegroundColor, terminalBackgroundColor, highlight,
+        highIntensity, isGraphic);
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ScreenContext that = (ScreenContext) o;
+    return highlight == that.highlight
+        && highIntensity == that.highIntensity
+        && isGraphic == that.isGraphic
+        && terminalForegroundColor == that.terminalForegroundColor
+        && terminalBackgroundColor == that.terminalBackgroundColor;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(terminalForegroundColor, terminalBackgroundColor, highlight, highIntensity,
         isGraphic);
   }
 
   @Override
   public String toString() {
     return String.format("[Fg:%-10s Bg:%-10s In:%s  Hl:%02X]",
-        ColorAttribute.getName(foregroundColor),
-        ColorAttribute.getName(backgroundColor),
+        terminalForegroundColor.getLabel(),
+        terminalBackgroundColor.getLabel(),
         (highIntensity ? 'x' : ' '), highlight);
   }
 
@@ -0,0 +1,52 @@
+package com.bytezone.dm3270.display;
+
+/**
+ * Row and column of a position in the screen, both starting at 1.
+ */
+public final class ScreenCoordinates {
+
+  public final int row;
+  public final int column;
+
+  public ScreenCoordinates(int row, int column) {
+    this.row = row;
+    this.column = column;
+  }
+
+  public static ScreenCoordinates fromLocation(int location, int columns) {
+    return new ScreenCoordinates(location / columns + 1, location % columns + 1);
+  }
+
+  /**
+   * Gets the linear position of these coordinates.
+   *
+   * @param columns number of columns of the screen.
+   * @return the position in the screen, starting at 0.
+   */
+  public int toLocation(int columns) {
+    return (row - 1) * columns + column - 1;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    ScreenCoordinates that = (ScreenCoordinates) o;
+    return row == that.row && column == that.column;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * row + column;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[Row:%d, Column:%d]", row, column);
+  }
+
+}
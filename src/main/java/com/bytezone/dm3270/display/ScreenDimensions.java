@@ -1,7 +1,5 @@
 package com.bytezone.dm3270.display;
 
-import com.bytezone.dm3270.orders.BufferAddress;
-
 public class ScreenDimensions {
 
   public final int rows;
@@ -13,8 +11,6 @@ public class ScreenDimensions {
     this.columns = columns;
 
     size = rows * columns;
-
-    BufferAddress.setScreenWidth(columns);       // for debugging output
   }
 
   @Override
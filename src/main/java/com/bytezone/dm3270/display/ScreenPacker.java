@@ -6,7 +6,7 @@ import com.bytezone.dm3270.attributes.StartFieldAttribute;
 import com.bytezone.dm3270.commands.AIDCommand;
 import com.bytezone.dm3270.commands.Command;
 import com.bytezone.dm3270.extended.SscpLuDataCommand;
-import com.bytezone.dm3270.orders.BufferAddress;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import com.bytezone.dm3270.orders.Order;
 import com.bytezone.dm3270.structuredfields.SetReplyModeSF;
 import java.util.List;
@@ -18,11 +18,14 @@ public class ScreenPacker {
   private Pen pen;
   private final FieldManager fieldManager;
   private final Charset charset;
+  private final BufferAddressCodec codec;
 
-  public ScreenPacker(Pen pen, FieldManager fieldManager, Charset charset) {
+  public ScreenPacker(Pen pen, FieldManager fieldManager, Charset charset,
+      BufferAddressCodec codec) {
     this.pen = pen;
     this.fieldManager = fieldManager;
     this.charset = charset;
+    this.codec = codec;
   }
 
   public Command readModifiedFields(byte currentAID, int cursorLocation,
@@ -35,15 +38,14 @@ public class ScreenPacker {
       if (currentAID == AIDCommand.AID_PA1 || currentAID == AIDCommand.AID_PA2
           || currentAID == AIDCommand.AID_PA3 || currentAID == AIDCommand.AID_CLEAR) {
         buffer[ptr++] = currentAID;
-        return new AIDCommand(buffer, 0, ptr, charset);
+        return new AIDCommand(buffer, 0, ptr, charset, codec);
       }
     }
 
     if (!sscpLuData) {
       // pack the cursor address
       buffer[ptr++] = currentAID;
-      BufferAddress ba = new BufferAddress(cursorLocation);
-      ptr = ba.packAddress(buffer, ptr);
+      ptr = codec.encode(cursorLocation, buffer, ptr);
     }
 
     if (!fieldManager.getFields().isEmpty()) {
@@ -61,8 +63,8 @@ public class ScreenPacker {
       }
     }
 
-    return sscpLuData ? new SscpLuDataCommand(buffer, 0, ptr, charset)
-        : new AIDCommand(buffer, 0, ptr, charset);
+    return sscpLuData ? new SscpLuDataCommand(buffer, 0, ptr, charset, codec)
+        : new AIDCommand(buffer, 0, ptr, charset, codec);
   }
 
   private int packField(Field field, byte[] buffer, int ptr) {
@@ -71,8 +73,7 @@ public class ScreenPacker {
     for (ScreenPosition sp : field) {
       if (sp.isStartField()) {
         buffer[ptr++] = Order.SET_BUFFER_ADDRESS;
-        BufferAddress ba = new BufferAddress(field.getFirstLocation());
-        ptr = ba.packAddress(buffer, ptr);
+        ptr = codec.encode(field.getFirstLocation(), buffer, ptr);
       } else if (!sp.isNull()) {
         buffer[ptr++] = sp.getByte();                  // suppress nulls
       }
@@ -88,8 +89,7 @@ public class ScreenPacker {
     buffer[ptr++] = currentAID;
 
     // pack the cursor address
-    BufferAddress ba = new BufferAddress(cursorLocation);
-    ptr = ba.packAddress(buffer, ptr);
+    ptr = codec.encode(cursorLocation, buffer, ptr);
 
     // pack every screen location
     for (ScreenPosition sp : pen) {
@@ -101,7 +101,7 @@ public class ScreenPacker {
       }
     }
 
-    return new AIDCommand(buffer, 0, ptr, charset);
+    return new AIDCommand(buffer, 0, ptr, charset, codec);
   }
 
   private int packStartPosition(ScreenPosition sp, byte[] buffer, int ptr,
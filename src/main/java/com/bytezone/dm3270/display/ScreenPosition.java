@@ -8,6 +8,9 @@ import java.util.List;
 
 public final class ScreenPosition {
 
+  private static final ScreenContext GRAPHIC_CONTEXT = ScreenContext.DEFAULT_CONTEXT
+      .withGraphic(true);
+
   private final int position;
 
   private StartFieldAttribute startFieldAttribute;
@@ -15,6 +18,8 @@ public final class ScreenPosition {
 
   private byte value;
   private ScreenContext screenContext;
+  // field which resolves the context of this position on first access, in text only mode
+  private Field contextField;
   private final Charset charset;
 
   public ScreenPosition(int position, ScreenContext screenContext,
@@ -32,6 +37,16 @@ public final class ScreenPosition {
     attributes.clear();
   }
 
+  void resetContext() {
+    contextField = null;
+    screenContext = ScreenContext.DEFAULT_CONTEXT;
+  }
+
+  void deferScreenContext(Field field, boolean graphic) {
+    contextField = field;
+    screenContext = graphic ? GRAPHIC_CONTEXT : ScreenContext.DEFAULT_CONTEXT;
+  }
+
   public void setChar(byte value) {
     this.value = value;
     screenContext = screenContext.withGraphic(false);
@@ -72,10 +87,20 @@ public final class ScreenPosition {
     if (screenContext == null) {
       throw new IllegalArgumentException("ScreenContext cannot be null");
     }
+    contextField = null;
     this.screenContext = screenContext;
   }
 
   public ScreenContext getScreenContext() {
+    if (contextField != null) {
+      contextField.resolveContexts();
+      contextField = null;
+    }
+    return screenContext;
+  }
+
+  // only the APL charset flag is set while the context is pending to be resolved
+  ScreenContext getUnresolvedScreenContext() {
     return screenContext;
   }
 
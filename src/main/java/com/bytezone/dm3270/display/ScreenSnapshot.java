@@ -0,0 +1,326 @@
+package com.bytezone.dm3270.display;
+
+import java.awt.Point;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Immutable copy of the screen contents (chars, attributes, fields and cursor).
+ * <p>
+ * A new snapshot is published, in the session executor, after each change of the screen (by a
+ * record received from the server, or by the client moving the cursor or setting fields text), so
+ * any thread can read a consistent view of the screen without locks and without waiting for data
+ * being received.
+ * <p>
+ * Each snapshot has a generation, and keeps the generation in which each row was last changed, so
+ * consumers which already processed a previous snapshot can get only the rows changed since it.
+ */
+public class ScreenSnapshot {
+
+  private final long generation;
+  private final ScreenDimensions screenDimensions;
+  private final long[] rowGenerations;
+  private final char[] chars;
+  private final ScreenContext[] contexts;
+  private final List<FieldSnapshot> fields;
+  private final List<Field> screenFields;
+  private final int cursorLocation;
+  private final boolean cursorVisible;
+  private final boolean keyboardLocked;
+
+  private ScreenSnapshot(long generation, ScreenDimensions screenDimensions,
+      long[] rowGenerations, char[] chars, ScreenContext[] contexts, List<FieldSnapshot> fields,
+      List<Field> screenFields, int cursorLocation, boolean cursorVisible,
+      boolean keyboardLocked) {
+    this.generation = generation;
+    this.screenDimensions = screenDimensions;
+    this.rowGenerations = rowGenerations;
+    this.chars = chars;
+    this.contexts = contexts;
+    this.fields = fields;
+    this.screenFields = screenFields;
+    this.cursorLocation = cursorLocation;
+    this.cursorVisible = cursorVisible;
+    this.keyboardLocked = keyboardLocked;
+  }
+
+  // must be called in the session executor, so the screen is not modified meanwhile
+  static ScreenSnapshot take(Screen screen, ScreenPosition[] screenPositions,
+      ScreenSnapshot previous) {
+    ScreenDimensions screenDimensions = screen.getScreenDimensions();
+    int size = Math.min(screenDimensions.size, screenPositions.length);
+    char[] chars = new char[size];
+    ScreenContext[] contexts = new ScreenContext[size];
+    ScreenTextDecoder decoder = new ScreenTextDecoder(screen.getCharset(), true);
+    boolean visible = true;
+    for (int pos = 0; pos < size; pos++) {
+      ScreenPosition sp = screenPositions[pos];
+      if (sp.isStartField()) {
+        visible = sp.getStartFieldAttribute().isVisible();
+        decoder.reset();
+      }
+      if (visible) {
+        decoder.decode(sp, chars, pos);
+      } else {
+        chars[pos] = ' ';
+      }
+      contexts[pos] = sp.getUnresolvedScreenContext();
+    }
+
+    List<Field> screenFields = screen.getFieldManager().getFields();
+    List<FieldSnapshot> fields = new ArrayList<>(screenFields.size());
+    for (Field field : screenFields) {
+      fields.add(new FieldSnapshot(field));
+    }
+
+    long generation = previous == null ? 1 : previous.generation + 1;
+    long[] rowGenerations = new long[(size + screenDimensions.columns - 1)
+        / screenDimensions.columns];
+    for (int row = 0; row < rowGenerations.length; row++) {
+      rowGenerations[row] = isRowChanged(row, previous, screenDimensions, chars, contexts)
+          ? generation : previous.rowGenerations[row];
+    }
+
+    Cursor cursor = screen.getScreenCursor();
+    return new ScreenSnapshot(generation, screenDimensions, rowGenerations, chars, contexts,
+        Collections.unmodifiableList(fields),
+        Collections.unmodifiableList(new ArrayList<>(screenFields)), cursor.getLocation(),
+        cursor.isVisible(), screen.isKeyboardLocked());
+  }
+
+  private static boolean isRowChanged(int row, ScreenSnapshot previous,
+      ScreenDimensions screenDimensions, char[] chars, ScreenContext[] contexts) {
+    if (previous == null || previous.screenDimensions.columns != screenDimensions.columns
+        || previous.chars.length != chars.length) {
+      return true;
+    }
+    int last = Math.min((row + 1) * screenDimensions.columns, chars.length);
+    for (int pos = row * screenDimensions.columns; pos < last; pos++) {
+      // contexts are rebuilt each time fields are built, so they are compared by value
+      if (chars[pos] != previous.chars[pos] || !contexts[pos].equals(previous.contexts[pos])) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  public long getGeneration() {
+    return generation;
+  }
+
+  public ScreenDimensions getScreenDimensions() {
+    return screenDimensions;
+  }
+
+  /**
+   * Gets the screen text.
+   *
+   * @return the screen text with newlines separating each row, and hidden fields contents as
+   * blanks.
+   */
+  public String getText() {
+    int columns = screenDimensions.columns;
+    StringBuilder text = new StringBuilder(chars.length + chars.length / columns);
+    for (int pos = 0; pos < chars.length; pos += columns) {
+      text.append(chars, pos, Math.min(columns, chars.length - pos));
+      if (pos + columns <= chars.length) {
+        text.append('\n');
+      }
+    }
+    return text.toString();
+  }
+
+  /**
+   * Gets the char at the given linear position.
+   *
+   * @param position linear position in the screen, starting at 0.
+   * @return the char at the position. The second position of a double byte char is a null char.
+   */
+  public char getChar(int position) {
+    return chars[position];
+  }
+
+  /**
+   * Gets the attributes (colors, highlighting, etc) at the given linear position.
+   *
+   * @param position linear position in the screen, starting at 0.
+   * @return the context of the position.
+   */
+  public ScreenContext getScreenContext(int position) {
+    return contexts[position];
+  }
+
+  public List<FieldSnapshot> getFields() {
+    return fields;
+  }
+
+  List<Field> getScreenFields() {
+    return screenFields;
+  }
+
+  public int getCursorLocation() {
+    return cursorLocation;
+  }
+
+  /**
+   * Gets the coordinates of the cursor.
+   *
+   * @return the row and column of the cursor. If the cursor is not visible then empty value is
+   * returned.
+   */
+  public Optional<ScreenCoordinates> getCursorCoordinates() {
+    return cursorVisible
+        ? Optional.of(ScreenCoordinates.fromLocation(cursorLocation, screenDimensions.columns))
+        : Optional.empty();
+  }
+
+  /**
+   * Get the position of the cursor.
+   * <p>
+   * This loads AWT. Use {@link #getCursorCoordinates()} to avoid it.
+   *
+   * @return the position of the cursor (x contains the column and y the row, both starting at 1).
+   * If the cursor is not visible then empty value is returned.
+   */
+  public Optional<Point> getCursorPosition() {
+    return getCursorCoordinates().map(c -> new Point(c.column, c.row));
+  }
+
+  public boolean isKeyboardLocked() {
+    return keyboardLocked;
+  }
+
+  /**
+   * Checks if the given row changed (text or attributes) after the snapshot with the given
+   * generation.
+   *
+   * @param row row number. First row is 1.
+   * @param generation the generation of a previous snapshot.
+   * @return true if the row changed, false otherwise.
+   */
+  public boolean isRowChangedSince(int row, long generation) {
+    return rowGenerations[row - 1] > generation;
+  }
+
+  /**
+   * Gets the rows which changed (text or attributes) after the snapshot with the given generation.
+   *
+   * @param generation the generation of a previous snapshot. Use 0 to get all the rows.
+   * @return the changed rows, in screen order. All rows are returned if the screen dimensions
+   * changed.
+   */
+  public List<Row> getChangesSince(long generation) {
+    List<Row> ret = new ArrayList<>();
+    int columns = screenDimensions.columns;
+    for (int row = 0; row < rowGenerations.length; row++) {
+      if (rowGenerations[row] > generation) {
+        int first = row * columns;
+        int last = Math.min(first + columns, chars.length);
+        ret.add(new Row(row + 1, new String(chars, first, last - first),
+            Arrays.copyOfRange(contexts, first, last)));
+      }
+    }
+    return ret;
+  }
+
+  /**
+   * Text and attributes of a row of the screen.
+   */
+  public static class Row {
+
+    private final int row;
+    private final String text;
+    private final ScreenContext[] contexts;
+
+    private Row(int row, String text, ScreenContext[] contexts) {
+      this.row = row;
+      this.text = text;
+      this.contexts = contexts;
+    }
+
+    /**
+     * Gets the row number.
+     *
+     * @return the row number. First row is 1.
+     */
+    public int getRow() {
+      return row;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    /**
+     * Gets the attributes (colors, highlighting, etc) at the given column.
+     *
+     * @param column column number. First column is 1.
+     * @return the context of the position.
+     */
+    public ScreenContext getScreenContext(int column) {
+      return contexts[column - 1];
+    }
+
+    @Override
+    public String toString() {
+      return String.format("[%03d %s]", row, text);
+    }
+
+  }
+
+  /**
+   * Immutable copy of a field of the screen.
+   */
+  public static class FieldSnapshot {
+
+    private final int firstLocation;
+    private final int displayLength;
+    private final boolean protectedField;
+    private final boolean hidden;
+    private final boolean modified;
+    private final String text;
+
+    private FieldSnapshot(Field field) {
+      firstLocation = field.getFirstLocation();
+      displayLength = field.getDisplayLength();
+      protectedField = field.isProtected();
+      hidden = field.isHidden();
+      modified = field.isModified();
+      text = field.getText();
+    }
+
+    public int getFirstLocation() {
+      return firstLocation;
+    }
+
+    public int getDisplayLength() {
+      return displayLength;
+    }
+
+    public boolean isProtected() {
+      return protectedField;
+    }
+
+    public boolean isHidden() {
+      return hidden;
+    }
+
+    public boolean isModified() {
+      return modified;
+    }
+
+    public String getText() {
+      return text;
+    }
+
+    @Override
+    public String toString() {
+      return String.format("[%04d %s %s]", firstLocation, protectedField ? 'P' : 'U', text);
+    }
+
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.bytezone.dm3270.display;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Named screen identified by the layout of some of its fields and by texts shown in given
+ * positions, to be registered in a {@link ScreenClassifier}.
+ * <p>
+ * A screen matches the template when it has a field starting at each of the template field
+ * positions with the same length and protection, and shows each of the template literals at their
+ * positions. Other fields and texts of the screen are not considered, so templates should include
+ * enough fields and literals to tell apart screens with similar layouts.
+ * <p>
+ * Example usage:
+ * <pre>
+ * ScreenTemplate template = new ScreenTemplate("login");
+ * template.addField(20, 18, 8, false);
+ * template.addLiteral(20, 2, "ENTER USERID");
+ * classifier.addTemplate(template);
+ * </pre>
+ */
+public class ScreenTemplate {
+
+  private final String name;
+  private final List<FieldSpec> fields = new ArrayList<>();
+  private final List<Literal> literals = new ArrayList<>();
+
+  public ScreenTemplate(String name) {
+    this.name = name;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Adds a field which the screen must contain.
+   *
+   * @param row row of the first displayed position of the field. First row is 1.
+   * @param column column of the first displayed position of the field (the one after the field
+   * attribute). First column is 1.
+   * @param length number of displayed positions of the field.
+   * @param protectedField true if the field must be protected, false if it must be unprotected.
+   */
+  public void addField(int row, int column, int length, boolean protectedField) {
+    if (row < 1 || column < 1 || length < 0) {
+      throw new IllegalArgumentException(
+          "Invalid field: " + row + "," + column + "," + length);
+    }
+    fields.add(new FieldSpec(new ScreenCoordinates(row, column), length, protectedField));
+  }
+
+  /**
+   * Adds a text which the screen must show.
+   *
+   * @param row row of the first char of the text. First row is 1.
+   * @param column column of the first char of the text. First column is 1.
+   * @param text the text to compare with the screen contents, char by char.
+   */
+  public void addLiteral(int row, int column, String text) {
+    if (row < 1 || column < 1 || text.isEmpty()) {
+      throw new IllegalArgumentException("Invalid literal: " + row + "," + column + ",'" + text
+          + "'");
+    }
+    literals.add(new Literal(new ScreenCoordinates(row, column), text));
+  }
+
+  List<FieldSpec> getFields() {
+    return Collections.unmodifiableList(fields);
+  }
+
+  List<Literal> getLiterals() {
+    return Collections.unmodifiableList(literals);
+  }
+
+  @Override
+  public String toString() {
+    return "ScreenTemplate{name='" + name + "', fields=" + fields.size() + ", literals="
+        + literals.size() + "}";
+  }
+
+  static class FieldSpec {
+
+    final ScreenCoordinates coordinates;
+    final int length;
+    final boolean protectedField;
+
+    private FieldSpec(ScreenCoordinates coordinates, int length, boolean protectedField) {
+      this.coordinates = coordinates;
+      this.length = length;
+      this.protectedField = protectedField;
+    }
+
+  }
+
+  static class Literal {
+
+    final ScreenCoordinates coordinates;
+    final String text;
+
+    private Literal(ScreenCoordinates coordinates, String text) {
+      this.coordinates = coordinates;
+      this.text = text;
+    }
+
+  }
+
+}
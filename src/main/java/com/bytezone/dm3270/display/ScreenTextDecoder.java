@@ -0,0 +1,91 @@
+package com.bytezone.dm3270.display;
+
+import com.bytezone.dm3270.Charset;
+
+/**
+ * Decodes the chars of consecutive screen positions in one pass, taking into account double
+ * byte chars (DBCS) between shift out and shift in bytes.
+ * <p>
+ * A new decoder has to be used for each pass over the screen, since it keeps the shift state of
+ * the positions already decoded. The shift state is reset on each start field.
+ */
+public class ScreenTextDecoder {
+
+  private final Charset charset;
+  private final boolean aligned;
+  private boolean shifted;
+  private boolean pendingFirstByte;
+  private byte firstByte;
+
+  /**
+   * Creates a decoder for the given charset.
+   *
+   * @param charset the charset of the screen.
+   * @param aligned when true each screen position is decoded to one char, so a double byte char is
+   * set in the position of its first byte and the position of its second byte is set to null char.
+   * When false the position of the second byte is skipped.
+   */
+  public ScreenTextDecoder(Charset charset, boolean aligned) {
+    this.charset = charset;
+    this.aligned = aligned;
+  }
+
+  /**
+   * Decodes the char of the next screen position.
+   *
+   * @param sp the screen position following the one previously decoded.
+   * @param chars where to write the decoded char.
+   * @param pos position in chars where to write the decoded char.
+   * @return the position in chars for the char of the next screen position.
+   */
+  public int decode(ScreenPosition sp, char[] chars, int pos) {
+    if (!charset.isDbcs()) {
+      chars[pos] = sp.getChar();
+      return pos + 1;
+    }
+
+    if (sp.isStartField()) {
+      reset();
+      chars[pos] = sp.getChar();
+      return pos + 1;
+    }
+
+    byte value = sp.getByte();
+    if (value == Charset.SHIFT_OUT || value == Charset.SHIFT_IN) {
+      shifted = value == Charset.SHIFT_OUT;
+      pendingFirstByte = false;
+      chars[pos] = ' ';
+      return pos + 1;
+    }
+
+    if (!shifted || sp.isGraphic()) {
+      chars[pos] = sp.getChar();
+      return pos + 1;
+    }
+
+    if (!pendingFirstByte) {
+      pendingFirstByte = true;
+      firstByte = value;
+      // blank until the second byte is found, in case the screen ends before it
+      chars[pos] = ' ';
+      return pos + 1;
+    }
+
+    pendingFirstByte = false;
+    chars[pos - 1] = charset.getDbcsChar(firstByte, value);
+    if (!aligned) {
+      return pos;
+    }
+    chars[pos] = '\u0000';
+    return pos + 1;
+  }
+
+  /**
+   * Clears the shift state, for example when positions of a field are skipped.
+   */
+  public void reset() {
+    shifted = false;
+    pendingFirstByte = false;
+  }
+
+}
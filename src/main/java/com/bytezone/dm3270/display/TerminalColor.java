@@ -0,0 +1,109 @@
+package com.bytezone.dm3270.display;
+
+/**
+ * Colors used to display the screen, in the order of the 3270 color attribute values.
+ * <p>
+ * Colors are kept as packed RGB values, so clients can use them without depending on AWT types.
+ */
+public enum TerminalColor {
+
+  NEUTRAL1("Neutral1", 0xF5F5F5),
+  BLUE("Blue", 0x1E90FF),
+  RED("Red", 0xFF0000),
+  PINK("Pink", 0xFFAFAF),
+  GREEN("Green", 0x00FF00),
+  TURQUOISE("Turquoise", 0x48D1CC),
+  YELLOW("Yellow", 0xFFFF00),
+  NEUTRAL2("Neutral2", 0xF5F5F5),
+  BLACK("Black", 0x000000),
+  DEEP_BLUE("Deep blue", 0x00008B),
+  ORANGE("Orange", 0xFFC800),
+  PURPLE("Purple", 0x800080),
+  PALE_GREEN("Pale green", 0x98FB98),
+  PALE_TURQUOISE("Pale turquoise", 0xAFEEEE),
+  GREY("Grey", 0x808080),
+  WHITE("White", 0xF5F5F5);
+
+  private static final TerminalColor[] VALUES = values();
+
+  private final String label;
+  private final int rgb;
+
+  TerminalColor(String label, int rgb) {
+    this.label = label;
+    this.rgb = rgb;
+  }
+
+  /**
+   * Gets the color for a color attribute value.
+   *
+   * @param value the value of a foreground or background color attribute (0x00 or 0xF1 to
+   * 0xFF).
+   * @return the color identified by the lower 4 bits of the value.
+   */
+  public static TerminalColor fromValue(byte value) {
+    return VALUES[value & 0x0F];
+  }
+
+  /**
+   * Gets the color for an AWT color.
+   *
+   * @param color an AWT color, usually obtained from {@link #toAwtColor()}.
+   * @return the color whose AWT color is the given one or, if none, the first one with the same
+   * RGB components.
+   * @throws IllegalArgumentException if no color has the same RGB components.
+   */
+  public static TerminalColor fromAwtColor(java.awt.Color color) {
+    TerminalColor ret = null;
+    for (TerminalColor terminalColor : VALUES) {
+      if (terminalColor.toAwtColor() == color) {
+        return terminalColor;
+      }
+      if (ret == null && terminalColor.rgb == (color.getRGB() & 0xFFFFFF)) {
+        ret = terminalColor;
+      }
+    }
+    if (ret == null) {
+      throw new IllegalArgumentException("No terminal color for " + color);
+    }
+    return ret;
+  }
+
+  public String getLabel() {
+    return label;
+  }
+
+  /**
+   * Gets the RGB components of the color.
+   *
+   * @return red component in bits 16-23, green in bits 8-15 and blue in bits 0-7.
+   */
+  public int getRgb() {
+    return rgb;
+  }
+
+  /**
+   * Gets the equivalent AWT color.
+   * <p>
+   * AWT is only loaded when this method is first used.
+   *
+   * @return the color with the same RGB components. The same instance is returned on each call.
+   */
+  public java.awt.Color toAwtColor() {
+    return AwtColors.COLORS[ordinal()];
+  }
+
+  // holder class, so AWT classes are only loaded when an AWT color is requested
+  private static final class AwtColors {
+
+    private static final java.awt.Color[] COLORS = new java.awt.Color[VALUES.length];
+
+    static {
+      for (TerminalColor color : VALUES) {
+        COLORS[color.ordinal()] = new java.awt.Color(color.rgb);
+      }
+    }
+
+  }
+
+}
@@ -66,8 +66,6 @@ public class BindCommand extends AbstractExtendedCommand {
     this.charset = charset;
     assert data[0] == 0x31;                    // bind command
 
-    LOG.debug(charset.toHex(data, 0, data.length));
-
     format = (data[1] & 0xF0) >> 4;
     type = data[1] & 0x0F;
 
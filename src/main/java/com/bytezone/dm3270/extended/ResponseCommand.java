@@ -12,7 +12,7 @@ public class ResponseCommand extends AbstractExtendedCommand {
       int length, Charset charset) {
     super(commandHeader, buffer, offset, length);
 
-    if (length != 1) {
+    if (length != 1 && LOG.isDebugEnabled()) {
       LOG.debug(charset.toHex(buffer, offset, length));
     }
   }
@@ -4,6 +4,7 @@ import com.bytezone.dm3270.Charset;
 import com.bytezone.dm3270.commands.Command;
 import com.bytezone.dm3270.display.Screen;
 import com.bytezone.dm3270.display.Screen.ScreenOption;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import com.bytezone.dm3270.orders.InsertCursorOrder;
 import com.bytezone.dm3270.orders.Order;
 import com.bytezone.dm3270.orders.TextOrder;
@@ -14,7 +15,8 @@ public class SscpLuDataCommand extends Command {
 
   private final List<Order> orders = new ArrayList<>();
 
-  public SscpLuDataCommand(byte[] buffer, int offset, int length, Charset charset) {
+  public SscpLuDataCommand(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     super(buffer, offset, length);
 
     int ptr = offset;
@@ -22,7 +24,7 @@ public class SscpLuDataCommand extends Command {
 
     int max = offset + length;
     while (ptr < max) {
-      Order order = Order.getOrder(buffer, ptr, max, charset);
+      Order order = Order.getOrder(buffer, ptr, max, charset, codec);
 
       if (order.matchesPreviousOrder(previousOrder)) {
         previousOrder.incrementDuplicates();           // and discard this Order
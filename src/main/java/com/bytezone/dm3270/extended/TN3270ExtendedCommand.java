@@ -75,7 +75,7 @@ public class TN3270ExtendedCommand extends AbstractExtendedCommand {
       return Optional.of(buffers.get(0));
     }
 
-    MultiBuffer multiBuffer = new MultiBuffer(charset);
+    MultiBuffer multiBuffer = new MultiBuffer();
     for (Buffer buffer : buffers) {
       multiBuffer.addBuffer(buffer);
     }
@@ -0,0 +1,101 @@
+package com.bytezone.dm3270.orders;
+
+/**
+ * Encodes and decodes the buffer addresses used by orders and inbound commands of a screen.
+ * <p>
+ * Each screen owns its codec, so sessions with different models (and screen widths) can safely
+ * run in parallel in the same JVM. Translation tables are shared since they don't depend on the
+ * screen.
+ */
+public class BufferAddressCodec {
+
+  private static final int MAX_12BIT_LOCATION = 0xFFF;
+
+  // 6-bit value -> 12-bit address byte
+  private static final byte[] ADDRESS = new byte[64];
+  // location -> both 12-bit address bytes (high byte first)
+  private static final char[] ENCODE_12BIT = new char[MAX_12BIT_LOCATION + 1];
+  // first address byte -> high part of the location, and mask to apply to the second byte
+  private static final int[] DECODE_HIGH = new int[256];
+  private static final int[] DECODE_LOW_MASK = new int[256];
+
+  private volatile int columns;
+
+  static {
+    int value = 0x40;
+    int ptr = 0;
+
+    for (int i = 0; i < 4; i++) {
+      ADDRESS[ptr++] = (byte) value++;
+      for (int j = 0; j < 9; j++) {
+        ADDRESS[ptr++] = (byte) (value++ | 0x80);
+      }
+      for (int j = 0; j < 6; j++) {
+        ADDRESS[ptr++] = (byte) value++;
+      }
+    }
+
+    ADDRESS[33] &= 0x7F;             // = 0x61;             // was 0xE1
+    ADDRESS[48] |= (byte) 0x80;      // = (byte) 0xF0;      // was 0x70
+
+    for (int location = 0; location <= MAX_12BIT_LOCATION; location++) {
+      ENCODE_12BIT[location] =
+          (char) ((ADDRESS[location >> 6] & 0xFF) << 8 | ADDRESS[location & 0x3F] & 0xFF);
+    }
+
+    for (int b1 = 0; b1 < 256; b1++) {
+      // top two bits off means 14-bit addressing
+      if ((b1 & 0xC0) == 0) {
+        DECODE_HIGH[b1] = (b1 & 0x3F) << 8;
+        DECODE_LOW_MASK[b1] = 0xFF;
+      } else {
+        DECODE_HIGH[b1] = (b1 & 0x3F) << 6;
+        DECODE_LOW_MASK[b1] = 0x3F;
+      }
+    }
+  }
+
+  public BufferAddressCodec(int columns) {
+    this.columns = columns;
+  }
+
+  public void setColumns(int columns) {
+    this.columns = columns;
+  }
+
+  public int getColumns() {
+    return columns;
+  }
+
+  public int decode(byte b1, byte b2) {
+    int high = b1 & 0xFF;
+    return DECODE_HIGH[high] | (b2 & DECODE_LOW_MASK[high]);
+  }
+
+  /**
+   * Packs the given location in the buffer, using 12-bit addressing when possible and 14-bit
+   * addressing for locations that don't fit in 12 bits (screens bigger than 4096 positions).
+   *
+   * @param location the buffer location to encode.
+   * @param buffer where to write the two address bytes.
+   * @param offset position in the buffer of the first address byte.
+   * @return the position in the buffer after the address.
+   */
+  public int encode(int location, byte[] buffer, int offset) {
+    if (location <= MAX_12BIT_LOCATION) {
+      char address = ENCODE_12BIT[location];
+      buffer[offset++] = (byte) (address >> 8);
+      buffer[offset++] = (byte) address;
+    } else {
+      buffer[offset++] = (byte) ((location >> 8) & 0x3F);
+      buffer[offset++] = (byte) location;
+    }
+    return offset;
+  }
+
+  public String format(int location) {
+    int width = columns;
+    return String.format("%04d %03d/%03d", location, location / width, location % width);
+  }
+
+}
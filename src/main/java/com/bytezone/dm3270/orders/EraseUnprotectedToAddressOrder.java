@@ -10,9 +10,10 @@ public class EraseUnprotectedToAddressOrder extends Order {
 
   private final BufferAddress stopAddress;
 
-  public EraseUnprotectedToAddressOrder(byte[] buffer, int offset) {
+  public EraseUnprotectedToAddressOrder(byte[] buffer, int offset,
+      BufferAddressCodec codec) {
     assert buffer[offset] == Order.ERASE_UNPROTECTED;
-    stopAddress = new BufferAddress(buffer[offset + 1], buffer[offset + 2]);
+    stopAddress = new BufferAddress(buffer[offset + 1], buffer[offset + 2], codec);
 
     this.buffer = new byte[3];
     System.arraycopy(buffer, offset, this.buffer, 0, this.buffer.length);
@@ -38,7 +38,8 @@ public abstract class Order {
   protected byte[] buffer;
   protected int duplicates;
 
-  public static Order getOrder(byte[] buffer, int ptr, int max, Charset charset) {
+  public static Order getOrder(byte[] buffer, int ptr, int max, Charset charset,
+      BufferAddressCodec codec) {
     switch (buffer[ptr]) {
       case START_FIELD:
         return new StartFieldOrder(buffer, ptr);
@@ -47,7 +48,7 @@ public abstract class Order {
         return new StartFieldExtendedOrder(buffer, ptr);
 
       case SET_BUFFER_ADDRESS:
-        return new SetBufferAddressOrder(buffer, ptr);
+        return new SetBufferAddressOrder(buffer, ptr, codec);
 
       case SET_ATTRIBUTE:
         return new SetAttributeOrder(buffer, ptr);
@@ -62,10 +63,10 @@ public abstract class Order {
         return new ProgramTabOrder(buffer, ptr);
 
       case REPEAT_TO_ADDRESS:
-        return new RepeatToAddressOrder(buffer, ptr, charset);
+        return new RepeatToAddressOrder(buffer, ptr, charset, codec);
 
       case ERASE_UNPROTECTED:
-        return new EraseUnprotectedToAddressOrder(buffer, ptr);
+        return new EraseUnprotectedToAddressOrder(buffer, ptr, codec);
 
       case GRAPHICS_ESCAPE:
         return new GraphicsEscapeOrder(buffer, ptr);
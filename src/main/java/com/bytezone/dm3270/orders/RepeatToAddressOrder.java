@@ -11,10 +11,11 @@ public class RepeatToAddressOrder extends Order {
   private char repeatCharacter;
   private byte rptChar;
 
-  public RepeatToAddressOrder(byte[] buffer, int offset, Charset charset) {
+  public RepeatToAddressOrder(byte[] buffer, int offset, Charset charset,
+      BufferAddressCodec codec) {
     assert buffer[offset] == Order.REPEAT_TO_ADDRESS;
 
-    stopAddress = new BufferAddress(buffer[offset + 1], buffer[offset + 2]);
+    stopAddress = new BufferAddress(buffer[offset + 1], buffer[offset + 2], codec);
 
     if (buffer[offset + 3] == Order.GRAPHICS_ESCAPE) {
       repeatCharacter = charset.getChar(buffer[offset + 4]);
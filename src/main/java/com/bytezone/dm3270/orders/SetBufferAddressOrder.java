@@ -7,10 +7,10 @@ public class SetBufferAddressOrder extends Order implements BufferAddressSource
 
   private final BufferAddress bufferAddress;
 
-  public SetBufferAddressOrder(byte[] buffer, int offset) {
+  public SetBufferAddressOrder(byte[] buffer, int offset, BufferAddressCodec codec) {
     assert buffer[offset] == Order.SET_BUFFER_ADDRESS;
 
-    bufferAddress = new BufferAddress(buffer[offset + 1], buffer[offset + 2]);
+    bufferAddress = new BufferAddress(buffer[offset + 1], buffer[offset + 2], codec);
 
     this.buffer = new byte[3];
     System.arraycopy(buffer, offset, this.buffer, 0, 3);
@@ -0,0 +1,210 @@
+package com.bytezone.dm3270.scraping;
+
+import com.bytezone.dm3270.TerminalClient;
+import com.bytezone.dm3270.application.KeyboardStatusListener;
+import com.bytezone.dm3270.commands.AIDCommand;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Extracts all the rows of a list which spans several pages (like ISPF data set lists or CICS
+ * browse panels), sending a paging AID (PF8 by default) to get each following page.
+ * <p>
+ * Rows are pushed to a consumer as each page arrives, so no more than one page is kept in memory.
+ * Since extracted pages are immutable snapshots, the paging AID for the next page is sent before
+ * pushing the rows of the current one, overlapping the consumer processing with the host round
+ * trip.
+ * <p>
+ * Paging stops when the end of data marker (if set) is found in a page, when a page has no rows,
+ * or when a page has the same rows as the previous one (as most applications do when paging
+ * beyond the last page).
+ */
+public class PagedScraper {
+
+  // max time between checks of a new page, in case the unlock was notified before the snapshot
+  private static final long POLL_MILLIS = 10;
+
+  private final TerminalClient client;
+  private final TableLayout layout;
+  private final Object pageLock = new Object();
+
+  private byte pagingAid = AIDCommand.AID_PF8;
+  private String pagingAidName = "PF8";
+  private String endMarker;
+  private long pageTimeoutMillis = 60000;
+  private long stablePeriodMillis;
+  private int maxPages;
+
+  public PagedScraper(TerminalClient client, TableLayout layout) {
+    this.client = client;
+    this.layout = layout;
+  }
+
+  /**
+   * Sets the AID sent to get the next page.
+   *
+   * @param aid the AID to send. PF8 by default.
+   * @param name the name of the AID.
+   */
+  public void setPagingAid(byte aid, String name) {
+    this.pagingAid = aid;
+    this.pagingAidName = name;
+  }
+
+  /**
+   * Sets a text which is only shown in the last page (for example "End of Data").
+   *
+   * @param endMarker the text which identifies the last page. Null (the default) to only stop
+   * when a page is empty or equal to the previous one.
+   */
+  public void setEndMarker(String endMarker) {
+    this.endMarker = endMarker;
+  }
+
+  /**
+   * Sets the max time to wait for each page.
+   *
+   * @param pageTimeoutMillis max millis to wait since the paging AID is sent until the keyboard is
+   * unlocked. 60 seconds by default.
+   */
+  public void setPageTimeoutMillis(long pageTimeoutMillis) {
+    this.pageTimeoutMillis = pageTimeoutMillis;
+  }
+
+  /**
+   * Sets the time the screen must not change after the keyboard is unlocked, for hosts which
+   * send each page in several writes.
+   *
+   * @param stablePeriodMillis millis to wait for further changes. 0 (the default) to extract the
+   * page as soon as the keyboard is unlocked.
+   */
+  public void setStablePeriodMillis(long stablePeriodMillis) {
+    this.stablePeriodMillis = stablePeriodMillis;
+  }
+
+  /**
+   * Sets the max number of pages to extract.
+   *
+   * @param maxPages max pages to extract. 0 (the default) for no limit.
+   */
+  public void setMaxPages(int maxPages) {
+    this.maxPages = maxPages;
+  }
+
+  /**
+   * Extracts the rows of the current page and all following ones.
+   * <p>
+   * The client must be showing the first page to extract, with the keyboard unlocked.
+   *
+   * @param consumer receives each extracted row, in order.
+   * @return the number of extracted rows.
+   * @throws InterruptedException if interrupted while waiting for a page.
+   * @throws TimeoutException if a page is not received in the page timeout.
+   */
+  public long scrape(Consumer<TableRow> consumer) throws InterruptedException,
+      TimeoutException {
+    KeyboardStatusListener listener = e -> {
+      synchronized (pageLock) {
+        pageLock.notifyAll();
+      }
+    };
+    client.addKeyboardStatusListener(listener);
+    try {
+      return scrapePages(consumer);
+    } finally {
+      client.removeKeyboardStatusListener(listener);
+    }
+  }
+
+  private long scrapePages(Consumer<TableRow> consumer) throws InterruptedException,
+      TimeoutException {
+    long rowCount = 0;
+    int pageCount = 0;
+    List<TableRow> previousRows = null;
+    ScreenSnapshot page = client.getScreenSnapshot();
+    while (true) {
+      List<TableRow> rows = layout.extract(page);
+      if (rows.isEmpty() || previousRows != null && isSamePage(rows, previousRows)) {
+        return rowCount;
+      }
+      pageCount++;
+      boolean lastPage = endMarker != null && page.getText().contains(endMarker)
+          || maxPages > 0 && pageCount >= maxPages;
+      CompletableFuture<Void> aidSent = lastPage ? null
+          : client.sendAIDAsync(pagingAid, pagingAidName);
+      rows.forEach(consumer);
+      rowCount += rows.size();
+      if (lastPage) {
+        return rowCount;
+      }
+      awaitSent(aidSent);
+      previousRows = rows;
+      page = awaitPage(page.getGeneration());
+    }
+  }
+
+  private boolean isSamePage(List<TableRow> rows, List<TableRow> otherRows) {
+    if (rows.size() != otherRows.size()) {
+      return false;
+    }
+    int columns = layout.getColumnNames().size();
+    for (int i = 0; i < rows.size(); i++) {
+      for (int column = 0; column < columns; column++) {
+        if (!rows.get(i).getText(column).equals(otherRows.get(i).getText(column))) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  private void awaitSent(CompletableFuture<Void> aidSent) throws InterruptedException {
+    try {
+      aidSent.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw new IllegalStateException("Problem sending " + pagingAidName, cause);
+    }
+  }
+
+  private ScreenSnapshot awaitPage(long previousGeneration) throws InterruptedException,
+      TimeoutException {
+    long deadline = System.currentTimeMillis() + pageTimeoutMillis;
+    synchronized (pageLock) {
+      while (true) {
+        ScreenSnapshot snapshot = client.getScreenSnapshot();
+        if (snapshot.getGeneration() > previousGeneration && !snapshot.isKeyboardLocked()
+            && isStable(snapshot)) {
+          return snapshot;
+        }
+        long remaining = deadline - System.currentTimeMillis();
+        if (remaining <= 0) {
+          throw new TimeoutException("No page received after " + pageTimeoutMillis + " millis");
+        }
+        pageLock.wait(Math.min(remaining, POLL_MILLIS));
+      }
+    }
+  }
+
+  // must be called holding the page lock
+  private boolean isStable(ScreenSnapshot snapshot) throws InterruptedException {
+    long end = System.currentTimeMillis() + stablePeriodMillis;
+    long remaining = stablePeriodMillis;
+    while (remaining > 0) {
+      pageLock.wait(remaining);
+      if (client.getScreenSnapshot() != snapshot) {
+        return false;
+      }
+      remaining = end - System.currentTimeMillis();
+    }
+    return true;
+  }
+
+}
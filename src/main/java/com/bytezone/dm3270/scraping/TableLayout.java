@@ -0,0 +1,246 @@
+package com.bytezone.dm3270.scraping;
+
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import com.bytezone.dm3270.display.ScreenSnapshot.FieldSnapshot;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Layout of a table shown in a range of rows of the screen (like ISPF data set lists, CICS
+ * browse panels or report lines), used to extract its rows directly from screen snapshots.
+ * <p>
+ * Each column is either a fixed span of screen columns or the n-th field starting in each row, and
+ * may have a converter to get typed values from its text. The layout is defined once and then
+ * applied to as many snapshots as needed, from any thread, as long as it is not modified while
+ * in use.
+ * <p>
+ * Example usage:
+ * <pre>
+ * TableLayout layout = new TableLayout(7, 22);
+ * layout.addColumn("name", 10, 44);
+ * layout.addColumn("tracks", 56, 6, Integer::valueOf);
+ * for (TableRow row : layout.extract(client.getScreenSnapshot())) {
+ *   int tracks = row.getValue("tracks");
+ *   ...
+ * }
+ * </pre>
+ */
+public class TableLayout {
+
+  private final int firstRow;
+  private final int lastRow;
+  private final List<Column> columns = new ArrayList<>();
+  private final Map<String, Integer> columnIndexes = new HashMap<>();
+  private boolean fieldColumns;
+  private boolean skipBlankRows = true;
+
+  /**
+   * Creates a layout for a table in the given rows.
+   *
+   * @param firstRow first row of the table. First row of the screen is 1.
+   * @param lastRow last row of the table (inclusive). Rows beyond the screen are ignored.
+   */
+  public TableLayout(int firstRow, int lastRow) {
+    if (firstRow < 1 || lastRow < firstRow) {
+      throw new IllegalArgumentException("Invalid table rows: " + firstRow + "-" + lastRow);
+    }
+    this.firstRow = firstRow;
+    this.lastRow = lastRow;
+  }
+
+  /**
+   * Adds a column which spans the given screen columns.
+   *
+   * @param name name of the column.
+   * @param column first screen column of the table column. First column is 1.
+   * @param length number of screen columns of the table column.
+   */
+  public void addColumn(String name, int column, int length) {
+    addColumn(name, column, length, null);
+  }
+
+  /**
+   * Adds a typed column which spans the given screen columns.
+   *
+   * @param name name of the column.
+   * @param column first screen column of the table column. First column is 1.
+   * @param length number of screen columns of the table column.
+   * @param converter converts the trimmed text of the column to its value. It is not invoked for
+   * empty texts, which have null value.
+   */
+  public void addColumn(String name, int column, int length, Function<String, ?> converter) {
+    if (column < 1 || length < 1) {
+      throw new IllegalArgumentException("Invalid column span: " + column + "," + length);
+    }
+    add(new Column(name, column - 1, length, -1, converter));
+  }
+
+  /**
+   * Adds a column with the contents of the n-th field starting in each row.
+   *
+   * @param name name of the column.
+   * @param fieldOrdinal ordinal of the field in the row. First field is 1. Fields without
+   * displayable positions are not counted.
+   */
+  public void addFieldColumn(String name, int fieldOrdinal) {
+    addFieldColumn(name, fieldOrdinal, null);
+  }
+
+  /**
+   * Adds a typed column with the contents of the n-th field starting in each row.
+   *
+   * @param name name of the column.
+   * @param fieldOrdinal ordinal of the field in the row. First field is 1. Fields without
+   * displayable positions are not counted.
+   * @param converter converts the trimmed text of the field to its value. It is not invoked for
+   * empty texts, which have null value.
+   */
+  public void addFieldColumn(String name, int fieldOrdinal, Function<String, ?> converter) {
+    if (fieldOrdinal < 1) {
+      throw new IllegalArgumentException("Invalid field ordinal: " + fieldOrdinal);
+    }
+    add(new Column(name, -1, 0, fieldOrdinal - 1, converter));
+    fieldColumns = true;
+  }
+
+  private void add(Column column) {
+    if (columnIndexes.putIfAbsent(column.name, columns.size()) != null) {
+      throw new IllegalArgumentException("Duplicate column: " + column.name);
+    }
+    columns.add(column);
+  }
+
+  /**
+   * Sets whether rows where all columns are blank are excluded from extracted rows.
+   *
+   * @param skipBlankRows true (the default) to exclude blank rows, false otherwise.
+   */
+  public void setSkipBlankRows(boolean skipBlankRows) {
+    this.skipBlankRows = skipBlankRows;
+  }
+
+  /**
+   * Extracts the table rows from the given screen snapshot.
+   *
+   * @param snapshot the snapshot of the screen showing the table.
+   * @return the rows of the table, in screen order.
+   */
+  public List<TableRow> extract(ScreenSnapshot snapshot) {
+    ScreenDimensions screenDimensions = snapshot.getScreenDimensions();
+    int last = Math.min(lastRow, screenDimensions.rows);
+    List<List<FieldSnapshot>> rowsFields = fieldColumns
+        ? getRowsFields(snapshot, screenDimensions.columns) : null;
+    char[] buffer = new char[screenDimensions.columns];
+    List<TableRow> ret = new ArrayList<>(Math.max(0, last - firstRow + 1));
+    for (int row = firstRow; row <= last; row++) {
+      int rowStart = (row - 1) * screenDimensions.columns;
+      String[] texts = new String[columns.size()];
+      Object[] values = new Object[columns.size()];
+      boolean blank = true;
+      for (int i = 0; i < texts.length; i++) {
+        Column column = columns.get(i);
+        String text;
+        if (column.fieldOrdinal >= 0) {
+          List<FieldSnapshot> rowFields = rowsFields.get(row - 1);
+          text = column.fieldOrdinal < rowFields.size()
+              ? getFieldText(snapshot, rowFields.get(column.fieldOrdinal), buffer) : "";
+        } else {
+          int length = Math.min(column.length, screenDimensions.columns - column.offset);
+          text = getText(snapshot, rowStart + column.offset, length, buffer);
+        }
+        texts[i] = text;
+        if (!text.isEmpty()) {
+          blank = false;
+          values[i] = column.converter != null ? column.converter.apply(text) : text;
+        }
+      }
+      if (!blank || !skipBlankRows) {
+        ret.add(new TableRow(row, columnIndexes, texts, values));
+      }
+    }
+    return ret;
+  }
+
+  private List<List<FieldSnapshot>> getRowsFields(ScreenSnapshot snapshot, int columns) {
+    List<List<FieldSnapshot>> ret = new ArrayList<>(lastRow);
+    for (int i = 0; i < lastRow; i++) {
+      ret.add(new ArrayList<>());
+    }
+    for (FieldSnapshot field : snapshot.getFields()) {
+      // first location is the start field attribute, which is not displayed
+      int row = (field.getFirstLocation() + 1) / columns;
+      if (field.getDisplayLength() > 0 && row >= firstRow - 1 && row < lastRow) {
+        ret.get(row).add(field);
+      }
+    }
+    return ret;
+  }
+
+  private static String getFieldText(ScreenSnapshot snapshot, FieldSnapshot field,
+      char[] buffer) {
+    int size = snapshot.getScreenDimensions().size;
+    int length = Math.min(field.getDisplayLength(), size - field.getFirstLocation() - 1);
+    return getText(snapshot, field.getFirstLocation() + 1, length,
+        length > buffer.length ? new char[length] : buffer);
+  }
+
+  // trimmed text of the given positions, without the null chars of double byte chars
+  private static String getText(ScreenSnapshot snapshot, int position, int length,
+      char[] buffer) {
+    int end = 0;
+    int start = -1;
+    for (int pos = position; pos < position + length; pos++) {
+      char c = snapshot.getChar(pos);
+      if (c == '\u0000') {
+        continue;
+      }
+      if (c > ' ' && start < 0) {
+        start = end;
+      }
+      buffer[end++] = c;
+    }
+    if (start < 0) {
+      return "";
+    }
+    while (buffer[end - 1] <= ' ') {
+      end--;
+    }
+    return new String(buffer, start, end - start);
+  }
+
+  /**
+   * Gets the names of the columns, in the order they were added.
+   *
+   * @return the column names.
+   */
+  public List<String> getColumnNames() {
+    List<String> ret = new ArrayList<>(columns.size());
+    columns.forEach(c -> ret.add(c.name));
+    return Collections.unmodifiableList(ret);
+  }
+
+  private static class Column {
+
+    private final String name;
+    private final int offset;
+    private final int length;
+    private final int fieldOrdinal;
+    private final Function<String, ?> converter;
+
+    private Column(String name, int offset, int length, int fieldOrdinal,
+        Function<String, ?> converter) {
+      this.name = name;
+      this.offset = offset;
+      this.length = length;
+      this.fieldOrdinal = fieldOrdinal;
+      this.converter = converter;
+    }
+
+  }
+
+}
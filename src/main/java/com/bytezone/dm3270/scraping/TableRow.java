@@ -0,0 +1,89 @@
+package com.bytezone.dm3270.scraping;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Row extracted from the screen with a {@link TableLayout}.
+ */
+public class TableRow {
+
+  private final int row;
+  private final Map<String, Integer> columnIndexes;
+  private final String[] texts;
+  private final Object[] values;
+
+  TableRow(int row, Map<String, Integer> columnIndexes, String[] texts, Object[] values) {
+    this.row = row;
+    this.columnIndexes = columnIndexes;
+    this.texts = texts;
+    this.values = values;
+  }
+
+  /**
+   * Gets the screen row this row was extracted from.
+   *
+   * @return the row number. First row is 1.
+   */
+  public int getRow() {
+    return row;
+  }
+
+  /**
+   * Gets the trimmed text of a column.
+   *
+   * @param column the name of the column.
+   * @return the text of the column. Empty if the column is blank.
+   */
+  public String getText(String column) {
+    return texts[getColumnIndex(column)];
+  }
+
+  /**
+   * Gets the trimmed text of a column.
+   *
+   * @param columnIndex the index of the column, in the order columns were added to the layout.
+   * @return the text of the column. Empty if the column is blank.
+   */
+  public String getText(int columnIndex) {
+    return texts[columnIndex];
+  }
+
+  /**
+   * Gets the value of a column, as returned by the converter of the column.
+   *
+   * @param column the name of the column.
+   * @param <T> type returned by the column converter (or String if it has no converter).
+   * @return the value of the column, or null if the column is blank.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getValue(String column) {
+    return (T) values[getColumnIndex(column)];
+  }
+
+  /**
+   * Gets the value of a column, as returned by the converter of the column.
+   *
+   * @param columnIndex the index of the column, in the order columns were added to the layout.
+   * @param <T> type returned by the column converter (or String if it has no converter).
+   * @return the value of the column, or null if the column is blank.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> T getValue(int columnIndex) {
+    return (T) values[columnIndex];
+  }
+
+  private int getColumnIndex(String column) {
+    Integer index = columnIndexes.get(column);
+    if (index == null) {
+      throw new IllegalArgumentException("Unknown column: " + column);
+    }
+    return index;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("[%03d %s]", row, Arrays.toString(texts));
+  }
+
+}
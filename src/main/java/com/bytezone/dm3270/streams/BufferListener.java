@@ -7,6 +7,10 @@ public interface BufferListener {
   void listen(TelnetSocket.Source targetRole, byte[] message, LocalDateTime dateTime,
               boolean genuine);
 
+  // called when there is no more received data pending to be listened
+  default void drained() {
+  }
+
   void close();
 
 }
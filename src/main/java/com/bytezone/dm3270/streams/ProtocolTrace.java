@@ -0,0 +1,100 @@
+package com.bytezone.dm3270.streams;
+
+import com.bytezone.dm3270.buffers.Buffer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed size trace of the last raw records exchanged with the server.
+ * <p>
+ * Recording a record only copies its bytes into a slot of a lock-free ring buffer, so it can be
+ * kept enabled in every session and formatted only when needed (for example, after a
+ * connection failure).
+ */
+public class ProtocolTrace {
+
+  private final AtomicReferenceArray<Record> records;
+  private final AtomicLong nextSequence = new AtomicLong();
+
+  public ProtocolTrace(int size) {
+    if (size <= 0) {
+      throw new IllegalArgumentException("Trace size must be greater than 0");
+    }
+    records = new AtomicReferenceArray<>(size);
+  }
+
+  public void record(TelnetSocket.Source source, byte[] buffer, int offset, int length) {
+    long sequence = nextSequence.getAndIncrement();
+    records.set((int) (sequence % records.length()), new Record(sequence, source,
+        System.currentTimeMillis(), Arrays.copyOfRange(buffer, offset, offset + length)));
+  }
+
+  /**
+   * Gets the traced records, oldest first.
+   * <p>
+   * Records added while this method runs may or may not be included.
+   *
+   * @return the list of records still in the trace.
+   */
+  public List<Record> getRecords() {
+    long last = nextSequence.get();
+    long first = Math.max(0, last - records.length());
+    List<Record> ret = new ArrayList<>((int) (last - first));
+    for (long sequence = first; sequence < last; sequence++) {
+      Record record = records.get((int) (sequence % records.length()));
+      // the slot may not be set yet, or may have been already overwritten by a newer record
+      if (record != null && record.sequence == sequence) {
+        ret.add(record);
+      }
+    }
+    return ret;
+  }
+
+  public String dump() {
+    StringBuilder text = new StringBuilder();
+    for (Record record : getRecords()) {
+      text.append(record).append('\n');
+    }
+    return text.toString();
+  }
+
+  public static class Record {
+
+    private final long sequence;
+    private final TelnetSocket.Source source;
+    private final long timestampMillis;
+    private final byte[] data;
+
+    private Record(long sequence, TelnetSocket.Source source, long timestampMillis,
+        byte[] data) {
+      this.sequence = sequence;
+      this.source = source;
+      this.timestampMillis = timestampMillis;
+      this.data = data;
+    }
+
+    public TelnetSocket.Source getSource() {
+      return source;
+    }
+
+    public long getTimestampMillis() {
+      return timestampMillis;
+    }
+
+    public byte[] getData() {
+      return data.clone();
+    }
+
+    @Override
+    public String toString() {
+      return String.format("%s %s %d bytes%n%s", Instant.ofEpochMilli(timestampMillis), source,
+          data.length, Buffer.toHex(data, 0, data.length));
+    }
+
+  }
+
+}
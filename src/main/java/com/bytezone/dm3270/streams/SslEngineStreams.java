@@ -0,0 +1,239 @@
+package com.bytezone.dm3270.streams;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLEngineResult.HandshakeStatus;
+import javax.net.ssl.SSLException;
+
+/**
+ * Input and output streams which encrypt and decrypt with an {@link SSLEngine} the data of an
+ * already connected (plain) socket.
+ * <p>
+ * This allows upgrading a telnet connection to TLS in the middle of the session (STARTTLS), keeping
+ * the blocking reads of the terminal server. Data received from the network but not yet decrypted
+ * is kept between reads, so a read interrupted by a socket timeout can just be retried.
+ */
+class SslEngineStreams {
+
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  private final SSLEngine engine;
+  private final InputStream netIn;
+  private final OutputStream netOut;
+  private final Object writeLock = new Object();
+  private final byte[] readBuffer;
+
+  // all buffers are kept ready to be written (position is the amount of contained data)
+  private ByteBuffer netInBuffer;
+  private ByteBuffer appInBuffer;
+  private ByteBuffer netOutBuffer;
+
+  private final InputStream inputStream = new InputStream() {
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      return SslEngineStreams.this.read(b, off, len);
+    }
+
+    @Override
+    public int available() {
+      return appInBuffer.position();
+    }
+
+  };
+
+  private final OutputStream outputStream = new OutputStream() {
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      ByteBuffer src = ByteBuffer.wrap(b, off, len);
+      synchronized (writeLock) {
+        while (src.hasRemaining()) {
+          if (wrap(src).getStatus() == SSLEngineResult.Status.CLOSED) {
+            throw new SSLException("TLS connection closed");
+          }
+        }
+      }
+    }
+
+  };
+
+  SslEngineStreams(SSLEngine engine, InputStream netIn, OutputStream netOut) {
+    this.engine = engine;
+    this.netIn = netIn;
+    this.netOut = netOut;
+    int packetSize = engine.getSession().getPacketBufferSize();
+    readBuffer = new byte[packetSize];
+    netInBuffer = ByteBuffer.allocate(packetSize);
+    netOutBuffer = ByteBuffer.allocate(packetSize);
+    appInBuffer = ByteBuffer.allocate(engine.getSession().getApplicationBufferSize());
+  }
+
+  public void handshake() throws IOException {
+    engine.beginHandshake();
+    HandshakeStatus status = engine.getHandshakeStatus();
+    while (status != HandshakeStatus.FINISHED && status != HandshakeStatus.NOT_HANDSHAKING) {
+      if (status == HandshakeStatus.NEED_TASK) {
+        runDelegatedTasks();
+        status = engine.getHandshakeStatus();
+      } else if (status == HandshakeStatus.NEED_WRAP) {
+        synchronized (writeLock) {
+          status = wrap(EMPTY).getHandshakeStatus();
+        }
+      } else {
+        SSLEngineResult result = unwrap();
+        if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+          throw new SSLException("TLS connection closed during handshake");
+        }
+        status = result.getHandshakeStatus();
+      }
+    }
+  }
+
+  private void runDelegatedTasks() {
+    Runnable task = engine.getDelegatedTask();
+    while (task != null) {
+      task.run();
+      task = engine.getDelegatedTask();
+    }
+  }
+
+  private SSLEngineResult wrap(ByteBuffer src) throws IOException {
+    while (true) {
+      netOutBuffer.clear();
+      SSLEngineResult result = engine.wrap(src, netOutBuffer);
+      switch (result.getStatus()) {
+        case OK:
+        case CLOSED:
+          netOut.write(netOutBuffer.array(), 0, netOutBuffer.position());
+          netOut.flush();
+          if (result.getHandshakeStatus() == HandshakeStatus.NEED_TASK) {
+            runDelegatedTasks();
+          }
+          return result;
+        case BUFFER_OVERFLOW:
+          netOutBuffer = ByteBuffer.allocate(
+              Math.max(engine.getSession().getPacketBufferSize(), netOutBuffer.capacity() * 2));
+          break;
+        default:
+          throw new SSLException("Unexpected TLS wrap status: " + result.getStatus());
+      }
+    }
+  }
+
+  private SSLEngineResult unwrap() throws IOException {
+    while (true) {
+      netInBuffer.flip();
+      SSLEngineResult result;
+      try {
+        result = engine.unwrap(netInBuffer, appInBuffer);
+      } finally {
+        netInBuffer.compact();
+      }
+      switch (result.getStatus()) {
+        case OK:
+        case CLOSED:
+          return result;
+        case BUFFER_UNDERFLOW:
+          readNetwork();
+          break;
+        case BUFFER_OVERFLOW:
+          appInBuffer = enlarge(appInBuffer, engine.getSession().getApplicationBufferSize());
+          break;
+        default:
+          throw new SSLException("Unexpected TLS unwrap status: " + result.getStatus());
+      }
+    }
+  }
+
+  private void readNetwork() throws IOException {
+    if (!netInBuffer.hasRemaining()) {
+      netInBuffer = enlarge(netInBuffer, engine.getSession().getPacketBufferSize());
+    }
+    int length = Math.min(readBuffer.length, netInBuffer.remaining());
+    // may throw a socket timeout, which leaves buffers ready to retry the read
+    int bytesRead = netIn.read(readBuffer, 0, length);
+    if (bytesRead < 0) {
+      throw new EOFException("Connection closed by server during TLS record");
+    }
+    netInBuffer.put(readBuffer, 0, bytesRead);
+  }
+
+  private static ByteBuffer enlarge(ByteBuffer buffer, int minRemaining) {
+    ByteBuffer ret = ByteBuffer.allocate(buffer.position() + minRemaining);
+    buffer.flip();
+    ret.put(buffer);
+    return ret;
+  }
+
+  private int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    while (appInBuffer.position() == 0) {
+      if (netInBuffer.position() == 0) {
+        // avoid the unwrap underflow when there is nothing buffered
+        readNetworkOrEnd();
+        if (netInBuffer.position() == 0) {
+          return -1;
+        }
+      }
+      SSLEngineResult result = unwrap();
+      if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+        return -1;
+      }
+      processPostHandshake(result.getHandshakeStatus());
+    }
+    appInBuffer.flip();
+    int ret = Math.min(len, appInBuffer.remaining());
+    appInBuffer.get(b, off, ret);
+    appInBuffer.compact();
+    return ret;
+  }
+
+  private void readNetworkOrEnd() throws IOException {
+    int bytesRead = netIn.read(readBuffer, 0, Math.min(readBuffer.length,
+        netInBuffer.remaining()));
+    if (bytesRead > 0) {
+      netInBuffer.put(readBuffer, 0, bytesRead);
+    }
+  }
+
+  // handles messages received after the handshake (session tickets, key updates, etc)
+  private void processPostHandshake(HandshakeStatus status) throws IOException {
+    if (status == HandshakeStatus.NEED_TASK) {
+      runDelegatedTasks();
+      status = engine.getHandshakeStatus();
+    }
+    if (status == HandshakeStatus.NEED_WRAP) {
+      synchronized (writeLock) {
+        wrap(EMPTY);
+      }
+    }
+  }
+
+  public InputStream getInputStream() {
+    return inputStream;
+  }
+
+  public OutputStream getOutputStream() {
+    return outputStream;
+  }
+
+}
@@ -13,6 +13,7 @@ import com.bytezone.dm3270.extended.TN3270ExtendedCommand;
 import com.bytezone.dm3270.extended.UnbindCommand;
 import com.bytezone.dm3270.session.SessionRecord;
 import com.bytezone.dm3270.session.SessionRecord.SessionRecordType;
+import com.bytezone.dm3270.telnet.StartTlsSubcommand;
 import com.bytezone.dm3270.telnet.TN3270ExtendedSubcommand;
 import com.bytezone.dm3270.telnet.TelnetCommand;
 import com.bytezone.dm3270.telnet.TelnetCommandProcessor;
@@ -49,15 +50,34 @@ public class TelnetListener implements BufferListener, TelnetCommandProcessor {
   // called from a background thread, so any GUI calls must be placed on the EDT.
   // Converts buffer arrays to Messages.
 
+  // Processing is done in the session executor, so it never overlaps with changes made by the
+  // client (setting fields, sending AIDs, etc).
   @Override
-  public synchronized void listen(TelnetSocket.Source source, byte[] buffer, LocalDateTime dateTime,
+  public void listen(TelnetSocket.Source source, byte[] buffer, LocalDateTime dateTime,
       boolean genuine) {
     assert source == this.source : "Incorrect source: " + source + ", expecting: "
         + this.source;
 
-    telnetProcessor.listen(buffer);     // will call one of the processXXX routines
+    screen.getSessionExecutor().run(() -> {
+      screen.holdChanges();
+      // replies to all the commands in the buffer are sent together
+      telnetState.holdWrites();
+      try {
+        telnetProcessor.listen(buffer);     // will call one of the processXXX routines
+      } finally {
+        telnetState.flushWrites();
+      }
+
+      telnetState.setLastAccess();
+    });
+    // out of the session executor, so listeners using the client don't wait for this thread
+    screen.getEventDispatcher().awaitCapacity();
+  }
 
-    telnetState.setLastAccess();
+  @Override
+  public void drained() {
+    screen.getSessionExecutor().run(screen::releaseChanges);
+    screen.getEventDispatcher().awaitCapacity();
   }
 
   @Override
@@ -95,9 +115,11 @@ public class TelnetListener implements BufferListener, TelnetCommandProcessor {
           command = currentCommandHeader;
         } else {
           if (source == TelnetSocket.Source.SERVER) {
-            command = Command.getCommand(data, offset, length, screen.getCharset());
+            command = Command.getCommand(data, offset, length, screen.getCharset(),
+                screen.getBufferAddressCodec());
           } else {
-            command = Command.getReply(data, offset, length, screen.getCharset());
+            command = Command.getReply(data, offset, length, screen.getCharset(),
+                screen.getBufferAddressCodec());
           }
           if (currentCommandHeader != null) {
             command = new TN3270ExtendedCommand(currentCommandHeader, (Command) command,
@@ -128,7 +150,8 @@ public class TelnetListener implements BufferListener, TelnetCommandProcessor {
 
       case SSCP_LU_DATA:
         ReplyBuffer extCommand = new TN3270ExtendedCommand(currentCommandHeader,
-            new SscpLuDataCommand(data, offset, length, screen.getCharset()), telnetState, charset);
+            new SscpLuDataCommand(data, offset, length, screen.getCharset(),
+                screen.getBufferAddressCodec()), telnetState, charset);
         addDataRecord(extCommand, SessionRecord.SessionRecordType.TN3270E);
         break;
 
@@ -139,6 +162,7 @@ public class TelnetListener implements BufferListener, TelnetCommandProcessor {
       default:
         LOG.warn("Data type not written: {}, {}", dataType, charset.toHex(data, offset, length));
     }
+    screen.publishSnapshot();
   }
 
   @Override
@@ -156,6 +180,8 @@ public class TelnetListener implements BufferListener, TelnetCommandProcessor {
       subcommand = new TerminalTypeSubcommand(data, 0, dataPtr, telnetState);
     } else if (data[2] == TelnetSubcommand.TN3270E) {
       subcommand = new TN3270ExtendedSubcommand(data, 0, dataPtr, telnetState);
+    } else if (data[2] == TelnetSubcommand.START_TLS) {
+      subcommand = new StartTlsSubcommand(data, 0, dataPtr, telnetState);
     } else {
       LOG.warn("Unknown command type : {}", Buffer.toHex(data, 2, 1));
     }
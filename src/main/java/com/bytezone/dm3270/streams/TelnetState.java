@@ -2,6 +2,7 @@ package com.bytezone.dm3270.streams;
 
 import com.bytezone.dm3270.display.ScreenDimensions;
 import com.bytezone.dm3270.telnet.TN3270ExtendedSubcommand;
+import java.io.ByteArrayOutputStream;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicLong;
 import org.slf4j.Logger;
@@ -23,17 +24,21 @@ public class TelnetState implements Runnable {
   private boolean doEOR;
   private boolean doTerminalType;
   private String doDeviceType;
+  private boolean doStartTls;
 
   // current status
   private boolean does3270Extended;
   private boolean doesEOR;
   private boolean doesBinary;
   private boolean doesTerminalType;
+  private boolean doesStartTls;
   private String deviceType = "";
   private List<TN3270ExtendedSubcommand.Function> functions;
 
   private String terminal = "";
   private TerminalServer terminalServer;
+  // guarded by this
+  private ByteArrayOutputStream heldWrites;
 
   // IO
   private AtomicLong lastAccess;
@@ -58,18 +63,52 @@ public class TelnetState implements Runnable {
     thread.start();
   }
 
+  /**
+   * Upgrades the connection to TLS, after the server acknowledges the STARTTLS negotiation.
+   */
+  public void startTls() {
+    if (terminalServer != null) {
+      terminalServer.requestTlsUpgrade();
+    }
+  }
+
   public void setLastAccess() {
     lastAccess.set(System.currentTimeMillis());
   }
 
   public void write(byte[] buffer) {
-    if (terminalServer != null) {
-      terminalServer.write(buffer);
+    synchronized (this) {
+      if (heldWrites != null) {
+        heldWrites.write(buffer, 0, buffer.length);
+      } else if (terminalServer != null) {
+        terminalServer.write(buffer);
+      }
     }
 
     lastAccess.set(System.currentTimeMillis());
   }
 
+  /**
+   * Holds written data until {@link #flushWrites()} is invoked, so all replies generated while
+   * processing received data are sent in one write (and usually one TCP segment).
+   */
+  public synchronized void holdWrites() {
+    if (heldWrites == null) {
+      heldWrites = new ByteArrayOutputStream();
+    }
+  }
+
+  /**
+   * Sends all data written since {@link #holdWrites()} was invoked, and stops holding writes.
+   */
+  public synchronized void flushWrites() {
+    ByteArrayOutputStream writes = heldWrites;
+    heldWrites = null;
+    if (writes != null && writes.size() > 0 && terminalServer != null) {
+      terminalServer.write(writes.toByteArray());
+    }
+  }
+
   public int nextCommandHeaderSeq() {
     return commandHeaderCount++;
   }
@@ -142,6 +181,11 @@ public class TelnetState implements Runnable {
     doesTerminalType = state;
   }
 
+  public void setDoesStartTls(boolean state) {
+    LOG.debug("Does STARTTLS: {}", state);
+    doesStartTls = state;
+  }
+
   public void setTerminal(String terminal) {
     LOG.debug("Terminal: {}", terminal);
     this.terminal = terminal;
@@ -203,6 +247,10 @@ public class TelnetState implements Runnable {
     return doesTerminalType || does3270Extended;
   }
 
+  public boolean doesStartTls() {
+    return doesStartTls;
+  }
+
   // ---------------------------------------------------------------------------------//
   // Ask preferences
   // ---------------------------------------------------------------------------------//
@@ -227,6 +275,10 @@ public class TelnetState implements Runnable {
     return doDeviceType;
   }
 
+  public boolean doStartTls() {
+    return doStartTls;
+  }
+
   // ---------------------------------------------------------------------------------//
   // Set preferences
   // ---------------------------------------------------------------------------------//
@@ -247,6 +299,10 @@ public class TelnetState implements Runnable {
     doTerminalType = state;
   }
 
+  public void setDoStartTls(boolean state) {
+    doStartTls = state;
+  }
+
   public void setDoDeviceType(int modelNo) {
     doDeviceType = TERMINAL_TYPES[modelNo];
     LOG.debug("setting: {}", doDeviceType);
@@ -258,6 +314,7 @@ public class TelnetState implements Runnable {
         + String.format("binary .......... %s%n", doesBinary)
         + String.format("EOR ............. %s%n", doesEOR)
         + String.format("terminal type ... %s%n", doesTerminalType)
+        + String.format("start TLS ....... %s%n", doesStartTls)
         + String.format("terminal ........ %s%n", terminal)
         + String.format("device type ..... %s%n", deviceType)
         + String.format("functions ....... %s", functions);
@@ -6,23 +6,35 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.net.SocketTimeoutException;
 import java.time.LocalDateTime;
 import javax.net.SocketFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 public class TerminalServer implements Runnable {
 
+  private static final Logger LOG = LoggerFactory.getLogger(TerminalServer.class);
+
   private final String serverURL;
   private final int serverPort;
   private final SocketFactory socketFactory;
   private int connectionTimeoutMillis;
+  private int quietPeriodMillis;
+  private SSLContext startTlsContext;
   private Socket serverSocket;
+  private InputStream serverIn;
   private OutputStream serverOut;
+  private volatile boolean tlsUpgradeRequested;
 
   private final byte[] buffer = new byte[4096];
   private volatile boolean running;
 
   private final BufferListener telnetListener;
   private ConnectionListener connectionListener;
+  private volatile ProtocolTrace protocolTrace;
 
   public TerminalServer(String serverURL, int serverPort, SocketFactory socketFactory,
       BufferListener listener) {
@@ -36,10 +48,31 @@ public class TerminalServer implements Runnable {
     this.connectionTimeoutMillis = connectionTimeoutMillis;
   }
 
+  public void setQuietPeriodMillis(int quietPeriodMillis) {
+    this.quietPeriodMillis = quietPeriodMillis;
+  }
+
+  /**
+   * Sets the context used to create the TLS engine when the server requests STARTTLS.
+   * <p>
+   * Engines are created for the server host and port, so reusing the same context for several
+   * connections to the same server allows resuming TLS sessions (skipping the full handshake) with
+   * the context client session cache.
+   *
+   * @param startTlsContext the context to use, or null if STARTTLS is not supported.
+   */
+  public void setStartTlsContext(SSLContext startTlsContext) {
+    this.startTlsContext = startTlsContext;
+  }
+
   public void setConnectionListener(ConnectionListener connectionListener) {
     this.connectionListener = connectionListener;
   }
 
+  public void setProtocolTrace(ProtocolTrace protocolTrace) {
+    this.protocolTrace = protocolTrace;
+  }
+
   @Override
   public void run() {
     try {
@@ -52,13 +85,23 @@ public class TerminalServer implements Runnable {
         return;
       }
 
-      InputStream serverIn = serverSocket.getInputStream();
+      serverIn = serverSocket.getInputStream();
       serverOut = serverSocket.getOutputStream();
 
       running = true;
       while (running) {
-        int bytesRead = serverIn.read(buffer);
+        int bytesRead;
+        try {
+          bytesRead = serverIn.read(buffer);
+        } catch (SocketTimeoutException e) {
+          // no more data received in the quiet period
+          serverSocket.setSoTimeout(0);
+          telnetListener.drained();
+          continue;
+        }
         if (bytesRead < 0) {
+          // notify changes still waiting for the quiet period before notifying the close
+          telnetListener.drained();
           close();
           if (connectionListener != null) {
             connectionListener.onConnectionClosed();
@@ -66,9 +109,24 @@ public class TerminalServer implements Runnable {
           break;
         }
 
+        ProtocolTrace trace = protocolTrace;
+        if (trace != null) {
+          trace.record(TelnetSocket.Source.SERVER, buffer, 0, bytesRead);
+        }
+
         byte[] message = new byte[bytesRead];
         System.arraycopy(buffer, 0, message, 0, bytesRead);
         telnetListener.listen(TelnetSocket.Source.SERVER, message, LocalDateTime.now(), true);
+        if (tlsUpgradeRequested) {
+          upgradeToTls();
+        }
+        if (serverIn.available() == 0) {
+          if (quietPeriodMillis > 0) {
+            serverSocket.setSoTimeout(quietPeriodMillis);
+          } else {
+            telnetListener.drained();
+          }
+        }
       }
     } catch (IOException e) {
       if (running) {
@@ -78,6 +136,39 @@ public class TerminalServer implements Runnable {
     }
   }
 
+  /**
+   * Requests upgrading the connection to TLS once the data already received is processed.
+   * <p>
+   * This is invoked when the server acknowledges the STARTTLS negotiation, and the TLS handshake
+   * starts right after the negotiation reply is sent, in the reading thread.
+   */
+  public void requestTlsUpgrade() {
+    if (startTlsContext == null) {
+      throw new IllegalStateException("No context configured for STARTTLS");
+    }
+    tlsUpgradeRequested = true;
+  }
+
+  private void upgradeToTls() throws IOException {
+    tlsUpgradeRequested = false;
+    // any data received after the STARTTLS negotiation is already part of the TLS handshake
+    if (serverIn.available() > 0) {
+      throw new IOException("Unexpected plain data received after STARTTLS negotiation");
+    }
+    SSLEngine engine = startTlsContext.createSSLEngine(serverURL, serverPort);
+    engine.setUseClientMode(true);
+    SslEngineStreams tlsStreams = new SslEngineStreams(engine, serverIn, serverOut);
+    // avoid sending plain data while handshaking
+    synchronized (this) {
+      serverSocket.setSoTimeout(connectionTimeoutMillis);
+      tlsStreams.handshake();
+      serverSocket.setSoTimeout(0);
+      serverIn = tlsStreams.getInputStream();
+      serverOut = tlsStreams.getOutputStream();
+    }
+    LOG.debug("Upgraded connection to {} with {}", serverURL, engine.getSession().getProtocol());
+  }
+
   private void handleException(IOException ex) {
     if (connectionListener != null) {
       connectionListener.onException(ex);
@@ -92,6 +183,11 @@ public class TerminalServer implements Runnable {
       return;
     }
 
+    ProtocolTrace trace = protocolTrace;
+    if (trace != null) {
+      trace.record(TelnetSocket.Source.CLIENT, buffer, 0, buffer.length);
+    }
+
     try {
       serverOut.write(buffer);
       serverOut.flush();
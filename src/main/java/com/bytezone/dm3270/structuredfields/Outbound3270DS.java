@@ -3,6 +3,7 @@ package com.bytezone.dm3270.structuredfields;
 import com.bytezone.dm3270.Charset;
 import com.bytezone.dm3270.commands.Command;
 import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,7 +15,8 @@ public class Outbound3270DS extends StructuredField {
   private final Command command;
 
   // wrapper for original write commands - W. EW, EWA, EAU
-  public Outbound3270DS(byte[] buffer, int offset, int length, Charset charset) {
+  public Outbound3270DS(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     super(buffer, offset, length, charset);             // copies buffer -> data
 
     assert data[0] == StructuredField.OUTBOUND_3270DS;
@@ -22,7 +24,7 @@ public class Outbound3270DS extends StructuredField {
     assert (partitionID & (byte) 0x80) == 0;    // must be 0x00 - 0x7F
 
     // can only be W/EW/EWA/EAU (i.e. one of the write commands)
-    command = Command.getCommand(buffer, offset + 2, length - 2, charset);
+    command = Command.getCommand(buffer, offset + 2, length - 2, charset, codec);
   }
 
   @Override
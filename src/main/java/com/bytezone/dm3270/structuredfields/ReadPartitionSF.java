@@ -5,6 +5,7 @@ import com.bytezone.dm3270.buffers.Buffer;
 import com.bytezone.dm3270.commands.Command;
 import com.bytezone.dm3270.commands.ReadPartitionQuery;
 import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.orders.BufferAddressCodec;
 import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,7 +17,8 @@ public class ReadPartitionSF extends StructuredField {
   private final byte partitionID;
   private final Command command;
 
-  public ReadPartitionSF(byte[] buffer, int offset, int length, Charset charset) {
+  public ReadPartitionSF(byte[] buffer, int offset, int length, Charset charset,
+      BufferAddressCodec codec) {
     super(buffer, offset, length, charset);
 
     assert data[0] == StructuredField.READ_PARTITION;
@@ -37,7 +39,7 @@ public class ReadPartitionSF extends StructuredField {
       assert (partitionID & (byte) 0x80) == 0;    // must be 0x00 - 0x7F
 
       // can only be RB/RM/RMA (i.e. one of the read commands)
-      command = Command.getCommand(buffer, offset + 2, length - 2, charset);
+      command = Command.getCommand(buffer, offset + 2, length - 2, charset, codec);
       LOG.debug("RB/RM/RMA: {}", command);
     }
   }
@@ -0,0 +1,42 @@
+package com.bytezone.dm3270.telnet;
+
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.streams.TelnetState;
+import java.security.InvalidParameterException;
+
+/**
+ * STARTTLS negotiation (RFC draft-altman-telnet-starttls), where the server asks the terminal to
+ * upgrade the connection to TLS after the terminal agreed to use the option.
+ */
+public class StartTlsSubcommand extends TelnetSubcommand {
+
+  private static final byte FOLLOWS = 1;
+
+  public StartTlsSubcommand(byte[] buffer, int offset, int length, TelnetState telnetState) {
+    super(buffer, offset, length, telnetState);
+
+    if (buffer[3] == FOLLOWS) {
+      type = SubcommandType.FOLLOWS;
+    } else {
+      throw new InvalidParameterException(
+          String.format("Unknown subcommand type: %02X%n", buffer[3]));
+    }
+  }
+
+  @Override
+  public void process(Screen screen) {
+    if (type == SubcommandType.FOLLOWS && telnetState.doesStartTls()) {
+      byte[] reply = {TelnetCommand.IAC, TelnetCommand.SB, START_TLS, FOLLOWS, TelnetCommand.IAC,
+          TelnetCommand.SE};
+      setReply(new StartTlsSubcommand(reply, 0, reply.length, telnetState));
+      // the handshake starts once the reply is sent
+      telnetState.startTls();
+    }
+  }
+
+  @Override
+  public String toString() {
+    return type + " StartTls";
+  }
+
+}
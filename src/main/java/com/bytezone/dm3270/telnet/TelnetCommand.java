@@ -110,6 +110,10 @@ public class TelnetCommand extends AbstractTelnetCommand {
         boolean preference = telnetState.doBinary();           // preference
         reply[1] = preference ? WILL : WONT;
         telnetState.setDoesBinary(preference);                 // set actual
+      } else if (commandType == CommandType.START_TLS) {
+        boolean preference = telnetState.doStartTls();         // preference
+        reply[1] = preference ? WILL : WONT;
+        telnetState.setDoesStartTls(preference);               // set actual
       } else if (commandType == null) {
         reply[1] =  WONT;
       }
@@ -155,6 +159,9 @@ public class TelnetCommand extends AbstractTelnetCommand {
       if (commandType == CommandType.EOR) {
         telnetState.setDoesEOR(false);
       }
+      if (commandType == CommandType.START_TLS) {
+        telnetState.setDoesStartTls(false);
+      }
     }
   }
 
@@ -16,7 +16,7 @@ public abstract class TelnetSubcommand extends AbstractTelnetCommand {
   protected String value;
 
   public enum SubcommandType {
-    SEND, IS, DEVICE_TYPE, FUNCTIONS
+    SEND, IS, DEVICE_TYPE, FUNCTIONS, FOLLOWS
   }
 
   public TelnetSubcommand(byte[] buffer, int offset, int length, TelnetState telnetState) {
@@ -0,0 +1,164 @@
+package com.bytezone.dm3270.viewer;
+
+import com.bytezone.dm3270.display.ScreenContext;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes the screen snapshots watched by a viewer as compact JSON frames.
+ * <p>
+ * The first frame (and any frame after the screen dimensions change) is a keyframe with the whole
+ * screen. Following frames only contain the runs of cells which changed since the previous frame.
+ * Each run has the linear position of its first cell, the index of the attributes (colors and
+ * highlighting) shared by all its cells, and its text:
+ * <pre>
+ * {"type":"key","generation":7,"rows":24,"columns":80,
+ *   "attributes":[[0,"#00ff00","#000000",0,false]],"runs":[[0,0,"READY ..."]],
+ *   "cursor":1601,"locked":false}
+ * {"type":"delta","generation":9,"attributes":[],"runs":[[1620,0,"TESTUSR"]],
+ *   "cursor":1627,"locked":false}
+ * </pre>
+ * Attributes are only included in the first frame which uses them, and their indexes are kept
+ * for the rest of the frames. Cursor is -1 when it is not visible.
+ * <p>
+ * Each viewer requires its own encoder, since it keeps the last snapshot sent to it.
+ */
+public class ScreenDeltaEncoder {
+
+  private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+  private final Map<ScreenContext, Integer> attributeIndexes = new HashMap<>();
+  private ScreenSnapshot previous;
+  private int previousCursor = -1;
+  private boolean previousLocked;
+
+  /**
+   * Encodes the changes from the previously encoded snapshot to the given one.
+   *
+   * @param snapshot the current screen snapshot.
+   * @return the frame to send to the viewer, or null if nothing changed.
+   */
+  public String encode(ScreenSnapshot snapshot) {
+    if (snapshot == previous) {
+      return null;
+    }
+    ScreenDimensions screenDimensions = snapshot.getScreenDimensions();
+    boolean keyframe = previous == null
+        || previous.getScreenDimensions().columns != screenDimensions.columns
+        || previous.getScreenDimensions().rows != screenDimensions.rows;
+    int cursor = snapshot.getCursorCoordinates()
+        .map(c -> c.toLocation(screenDimensions.columns))
+        .orElse(-1);
+
+    StringBuilder attributes = new StringBuilder();
+    StringBuilder runs = new StringBuilder();
+    for (int row = 1; row <= screenDimensions.rows; row++) {
+      if (keyframe || snapshot.isRowChangedSince(row, previous.getGeneration())) {
+        appendRowRuns(snapshot, keyframe, row, attributes, runs);
+      }
+    }
+    if (!keyframe && runs.length() == 0 && cursor == previousCursor
+        && snapshot.isKeyboardLocked() == previousLocked) {
+      previous = snapshot;
+      return null;
+    }
+
+    StringBuilder frame = new StringBuilder(runs.length() + attributes.length() + 128);
+    frame.append("{\"type\":\"").append(keyframe ? "key" : "delta")
+        .append("\",\"generation\":").append(snapshot.getGeneration());
+    if (keyframe) {
+      frame.append(",\"rows\":").append(screenDimensions.rows)
+          .append(",\"columns\":").append(screenDimensions.columns);
+    }
+    frame.append(",\"attributes\":[").append(attributes)
+        .append("],\"runs\":[").append(runs)
+        .append("],\"cursor\":").append(cursor)
+        .append(",\"locked\":").append(snapshot.isKeyboardLocked())
+        .append('}');
+
+    previous = snapshot;
+    previousCursor = cursor;
+    previousLocked = snapshot.isKeyboardLocked();
+    return frame.toString();
+  }
+
+  private void appendRowRuns(ScreenSnapshot snapshot, boolean keyframe, int row,
+      StringBuilder attributes, StringBuilder runs) {
+    int columns = snapshot.getScreenDimensions().columns;
+    int first = (row - 1) * columns;
+    int last = first + columns;
+    int runStart = -1;
+    ScreenContext runContext = null;
+    for (int pos = first; pos <= last; pos++) {
+      boolean changed = pos < last && (keyframe || isCellChanged(snapshot, pos));
+      ScreenContext context = changed ? snapshot.getScreenContext(pos) : null;
+      if (runStart >= 0 && (!changed || !context.equals(runContext))) {
+        appendRun(snapshot, runStart, pos, getAttributeIndex(runContext, attributes), runs);
+        runStart = -1;
+      }
+      if (changed && runStart < 0) {
+        runStart = pos;
+        runContext = context;
+      }
+    }
+  }
+
+  private boolean isCellChanged(ScreenSnapshot snapshot, int pos) {
+    return snapshot.getChar(pos) != previous.getChar(pos)
+        || !snapshot.getScreenContext(pos).equals(previous.getScreenContext(pos));
+  }
+
+  private int getAttributeIndex(ScreenContext context, StringBuilder attributes) {
+    Integer index = attributeIndexes.get(context);
+    if (index != null) {
+      return index;
+    }
+    index = attributeIndexes.size();
+    attributeIndexes.put(context, index);
+    if (attributes.length() > 0) {
+      attributes.append(',');
+    }
+    attributes.append('[').append(index)
+        .append(",\"").append(toHexColor(context.getTerminalForegroundColor().getRgb()))
+        .append("\",\"").append(toHexColor(context.getTerminalBackgroundColor().getRgb()))
+        .append("\",").append(context.highlight & 0xFF)
+        .append(',').append(context.highIntensity)
+        .append(']');
+    return index;
+  }
+
+  private static String toHexColor(int rgb) {
+    char[] ret = new char[7];
+    ret[0] = '#';
+    for (int i = 6; i > 0; i--) {
+      ret[i] = HEX_DIGITS[rgb & 0x0F];
+      rgb >>= 4;
+    }
+    return new String(ret);
+  }
+
+  private static void appendRun(ScreenSnapshot snapshot, int from, int to, int attributeIndex,
+      StringBuilder runs) {
+    if (runs.length() > 0) {
+      runs.append(',');
+    }
+    runs.append('[').append(from).append(',').append(attributeIndex).append(",\"");
+    for (int pos = from; pos < to; pos++) {
+      appendJsonChar(snapshot.getChar(pos), runs);
+    }
+    runs.append("\"]");
+  }
+
+  private static void appendJsonChar(char c, StringBuilder text) {
+    if (c == '"' || c == '\\') {
+      text.append('\\').append(c);
+    } else if (c < ' ') {
+      text.append("\\u00").append(HEX_DIGITS[c >> 4]).append(HEX_DIGITS[c & 0x0F]);
+    } else {
+      text.append(c);
+    }
+  }
+
+}
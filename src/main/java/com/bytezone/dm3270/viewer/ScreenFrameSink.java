@@ -0,0 +1,23 @@
+package com.bytezone.dm3270.viewer;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Transport of the frames generated by a {@link ScreenStreamer} to a remote viewer.
+ */
+public interface ScreenFrameSink extends Closeable {
+
+  /**
+   * Sends a frame to the viewer.
+   * <p>
+   * Frames of all sinks are sent from the same thread, so this should not block waiting for a
+   * slow viewer (for example, by queueing frames to be sent from other thread).
+   *
+   * @param frame the JSON encoded frame, without line breaks.
+   * @throws IOException if the frame can't be sent (or queued), in which case the sink is removed
+   * from the streamer and closed.
+   */
+  void send(String frame) throws IOException;
+
+}
@@ -0,0 +1,127 @@
+package com.bytezone.dm3270.viewer;
+
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Streams the screen of a session to remote viewers as a keyframe followed by deltas.
+ * <p>
+ * The published screen snapshot is periodically checked and, when it changed, a frame is encoded
+ * and sent to each sink. This never blocks nor delays the processing of data received from the
+ * server, and many screen changes between two checks are sent as a single delta. Sinks which fail
+ * to send a frame are removed, without affecting the rest of sinks.
+ * <p>
+ * Example usage:
+ * <pre>
+ * ScreenStreamer streamer = new ScreenStreamer(client::getScreenSnapshot);
+ * streamer.start(scheduler, 100);
+ * SseScreenServer server = new SseScreenServer(new InetSocketAddress(8080), streamer);
+ * server.start();
+ * </pre>
+ */
+public class ScreenStreamer implements Closeable {
+
+  private static final Logger LOG = LoggerFactory.getLogger(ScreenStreamer.class);
+
+  private final Supplier<ScreenSnapshot> snapshotSupplier;
+  private final Map<ScreenFrameSink, ScreenDeltaEncoder> sinks = new ConcurrentHashMap<>();
+  private ScheduledFuture<?> checkTask;
+
+  /**
+   * Creates a streamer for the given snapshots.
+   *
+   * @param snapshotSupplier supplier of the current screen snapshot. For example {@code
+   * TerminalClient::getScreenSnapshot}.
+   */
+  public ScreenStreamer(Supplier<ScreenSnapshot> snapshotSupplier) {
+    this.snapshotSupplier = snapshotSupplier;
+  }
+
+  /**
+   * Adds a viewer, which gets a keyframe in the next check and deltas after it.
+   *
+   * @param sink where to send the frames of the viewer.
+   */
+  public void addSink(ScreenFrameSink sink) {
+    sinks.put(sink, new ScreenDeltaEncoder());
+  }
+
+  public void removeSink(ScreenFrameSink sink) {
+    if (sinks.remove(sink) != null) {
+      closeSink(sink);
+    }
+  }
+
+  private void closeSink(ScreenFrameSink sink) {
+    try {
+      sink.close();
+    } catch (IOException e) {
+      LOG.debug("Problem closing screen frame sink", e);
+    }
+  }
+
+  /**
+   * Starts checking screen changes.
+   *
+   * @param scheduler scheduler used to check screen changes. May be shared by several streamers.
+   * @param periodMillis time between checks of screen changes.
+   */
+  public synchronized void start(ScheduledExecutorService scheduler, long periodMillis) {
+    if (checkTask != null) {
+      throw new IllegalStateException("Streamer already started");
+    }
+    checkTask = scheduler.scheduleWithFixedDelay(this::sendChanges, 0, periodMillis,
+        TimeUnit.MILLISECONDS);
+  }
+
+  /*
+   * Scheduled with fixed delay, so never runs concurrently, and encoders need no locking. Any
+   * exception thrown would cancel next runs, so they are logged instead.
+   */
+  private void sendChanges() {
+    if (sinks.isEmpty()) {
+      return;
+    }
+    try {
+      ScreenSnapshot snapshot = snapshotSupplier.get();
+      sinks.forEach((sink, encoder) -> sendChanges(snapshot, sink, encoder));
+    } catch (RuntimeException e) {
+      LOG.warn("Problem checking screen changes", e);
+    }
+  }
+
+  private void sendChanges(ScreenSnapshot snapshot, ScreenFrameSink sink,
+      ScreenDeltaEncoder encoder) {
+    try {
+      String frame = encoder.encode(snapshot);
+      if (frame != null) {
+        sink.send(frame);
+      }
+    } catch (IOException | RuntimeException e) {
+      LOG.debug("Removing screen frame sink since frame could not be sent", e);
+      removeSink(sink);
+    }
+  }
+
+  /**
+   * Stops checking screen changes and closes all sinks.
+   */
+  @Override
+  public synchronized void close() {
+    if (checkTask != null) {
+      checkTask.cancel(false);
+      checkTask = null;
+    }
+    sinks.keySet().forEach(this::removeSink);
+  }
+
+}
@@ -0,0 +1,157 @@
+package com.bytezone.dm3270.viewer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Minimal HTTP server which sends the frames of a {@link ScreenStreamer} as server-sent events.
+ * <p>
+ * Each GET request gets a {@code text/event-stream} response where each frame is sent as the data
+ * of an event, so a browser can watch the screen with an {@code EventSource}. It only depends on
+ * the HTTP server included in the JDK. Use a custom {@link ScreenFrameSink} to send frames with
+ * any other transport (like WebSockets of an existing web server).
+ * <p>
+ * Frames are queued for each viewer and written from a separate thread, so a slow viewer does not
+ * delay the rest of viewers nor the streamer. A viewer with too many frames pending is
+ * disconnected, and gets a new keyframe when it reconnects.
+ */
+public class SseScreenServer implements Closeable {
+
+  private static final int MAX_PENDING_FRAMES = 32;
+
+  private final HttpServer server;
+  private final ScreenStreamer streamer;
+  private final ExecutorService senders = Executors.newCachedThreadPool(r -> {
+    Thread thread = new Thread(r, "SseScreenServer-sender");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  /**
+   * Creates a server listening in the given address.
+   *
+   * @param address the address to listen on. Use port 0 to pick any free port.
+   * @param streamer the streamer which provides the frames to send.
+   * @throws IOException if the server can't listen on the address.
+   */
+  public SseScreenServer(InetSocketAddress address, ScreenStreamer streamer)
+      throws IOException {
+    this.streamer = streamer;
+    server = HttpServer.create(address, 0);
+    server.createContext("/", this::handle);
+  }
+
+  public void start() {
+    server.start();
+  }
+
+  public InetSocketAddress getAddress() {
+    return server.getAddress();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    if (!"GET".equals(exchange.getRequestMethod())) {
+      exchange.sendResponseHeaders(405, -1);
+      exchange.close();
+      return;
+    }
+    exchange.getResponseHeaders().set("Content-Type", "text/event-stream; charset=utf-8");
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+    exchange.sendResponseHeaders(200, 0);
+    // the exchange is kept open after returning, and frames are sent by the streamer
+    streamer.addSink(new EventStreamSink(exchange, senders));
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+    senders.shutdownNow();
+  }
+
+  private static class EventStreamSink implements ScreenFrameSink {
+
+    private final HttpExchange exchange;
+    private final OutputStream output;
+    private final Executor executor;
+    private final BlockingQueue<String> frames = new ArrayBlockingQueue<>(MAX_PENDING_FRAMES);
+    // set while a task sends pending frames, so only one writes to the exchange at a time
+    private final AtomicBoolean sending = new AtomicBoolean();
+    private volatile IOException failure;
+    private volatile boolean closed;
+
+    private EventStreamSink(HttpExchange exchange, Executor executor) {
+      this.exchange = exchange;
+      this.output = exchange.getResponseBody();
+      this.executor = executor;
+    }
+
+    @Override
+    public void send(String frame) throws IOException {
+      IOException error = failure;
+      if (error != null) {
+        throw error;
+      }
+      if (!frames.offer(frame)) {
+        throw new IOException("Viewer is too slow, " + MAX_PENDING_FRAMES + " frames pending");
+      }
+      scheduleSend();
+    }
+
+    private void scheduleSend() {
+      if (!sending.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        executor.execute(this::sendPending);
+      } catch (RejectedExecutionException e) {
+        // server closed
+        closed = true;
+        exchange.close();
+      }
+    }
+
+    private void sendPending() {
+      try {
+        String frame = frames.poll();
+        while (!closed && frame != null) {
+          output.write(("data: " + frame + "\n\n").getBytes(StandardCharsets.UTF_8));
+          output.flush();
+          frame = frames.poll();
+        }
+      } catch (IOException e) {
+        failure = e;
+        closed = true;
+      }
+      // the exchange is closed by the sending task, and sending is kept set so no other one starts
+      if (closed) {
+        frames.clear();
+        exchange.close();
+        return;
+      }
+      sending.set(false);
+      if (closed || !frames.isEmpty()) {
+        scheduleSend();
+      }
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+      scheduleSend();
+    }
+
+  }
+
+}
@@ -0,0 +1,74 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.orders.BufferAddressCodec;
+import org.junit.Test;
+
+public class BufferAddressCodecTest {
+
+  private static final int MAX_12BIT_LOCATION = 4095;
+  private static final int MAX_14BIT_LOCATION = 16383;
+
+  private final BufferAddressCodec codec = new BufferAddressCodec(80);
+
+  @Test
+  public void shouldGetSameLocationWhenDecodeEncodedLocation() {
+    byte[] buffer = new byte[2];
+    for (int location = 0; location <= MAX_14BIT_LOCATION; location++) {
+      codec.encode(location, buffer, 0);
+      assertThat(codec.decode(buffer[0], buffer[1])).as("location %d", location)
+          .isEqualTo(location);
+    }
+  }
+
+  @Test
+  public void shouldGetPositionAfterAddressWhenEncode() {
+    assertThat(codec.encode(80, new byte[4], 1)).isEqualTo(3);
+  }
+
+  @Test
+  public void shouldEncode12BitAddressWhenLocationFitsIn12Bits() {
+    assertThat(encode(0)).containsExactly(0x40, 0x40);
+    assertThat(encode(80)).containsExactly(0xC1, 0x50);
+    assertThat(encode(MAX_12BIT_LOCATION)).containsExactly(0x7F, 0x7F);
+  }
+
+  private byte[] encode(int location) {
+    byte[] buffer = new byte[2];
+    codec.encode(location, buffer, 0);
+    return buffer;
+  }
+
+  @Test
+  public void shouldEncodeAddressesWithTopBitsOfFirstByteSetWhenLocationFitsIn12Bits() {
+    for (int location = 0; location <= MAX_12BIT_LOCATION; location++) {
+      assertThat(encode(location)[0] & 0xC0).as("location %d", location).isNotZero();
+    }
+  }
+
+  @Test
+  public void shouldEncode14BitAddressWhenLocationDoesNotFitIn12Bits() {
+    assertThat(encode(MAX_12BIT_LOCATION + 1)).containsExactly(0x10, 0x00);
+    assertThat(encode(MAX_14BIT_LOCATION)).containsExactly(0x3F, 0xFF);
+  }
+
+  @Test
+  public void shouldEncodeAddressesWithTopBitsOfFirstByteOffWhenLocationDoesNotFitIn12Bits() {
+    for (int location = MAX_12BIT_LOCATION + 1; location <= MAX_14BIT_LOCATION; location++) {
+      assertThat(encode(location)[0] & 0xC0).as("location %d", location).isZero();
+    }
+  }
+
+  @Test
+  public void shouldDecode12BitAddress() {
+    assertThat(codec.decode((byte) 0xC1, (byte) 0x50)).isEqualTo(80);
+  }
+
+  @Test
+  public void shouldDecode14BitAddress() {
+    assertThat(codec.decode((byte) 0x00, (byte) 0x50)).isEqualTo(80);
+    assertThat(codec.decode((byte) 0x10, (byte) 0x00)).isEqualTo(MAX_12BIT_LOCATION + 1);
+  }
+
+}
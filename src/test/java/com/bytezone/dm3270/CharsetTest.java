@@ -0,0 +1,42 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class CharsetTest {
+
+  private static final String MIXED_TEXT = "A一B 二三C";
+
+  @Test
+  public void shouldGetSameBytesAsJdkEncoderWhenEncodeSingleByteText() {
+    assertEncodedAsJdk(Charset.CP1047, "Hello, World! 123");
+  }
+
+  private void assertEncodedAsJdk(Charset charset, String text) {
+    charset.load();
+    byte[] buffer = new byte[charset.getMaxEncodedLength(text.length())];
+    int length = charset.encode(text, buffer, 0);
+    assertThat(Arrays.copyOf(buffer, length))
+        .isEqualTo(text.getBytes(java.nio.charset.Charset.forName(charset.name())));
+  }
+
+  @Test
+  public void shouldGetSameBytesAsJdkEncoderWhenEncodeTextWithDoubleByteChars() {
+    for (Charset charset : Arrays.asList(Charset.CP930, Charset.CP935, Charset.CP937,
+        Charset.CP939)) {
+      assertEncodedAsJdk(charset, MIXED_TEXT);
+    }
+  }
+
+  @Test
+  public void shouldEncloseDoubleByteCodesInShiftsWhenEncodeTextWithDoubleByteChars() {
+    Charset.CP930.load();
+    byte[] buffer = new byte[Charset.CP930.getMaxEncodedLength(3)];
+    int length = Charset.CP930.encode("A一B", buffer, 0);
+    assertThat(Arrays.copyOf(buffer, length)).containsExactly((byte) 0xC1, Charset.SHIFT_OUT,
+        (byte) 0x45, (byte) 0x41, Charset.SHIFT_IN, (byte) 0xC2);
+  }
+
+}
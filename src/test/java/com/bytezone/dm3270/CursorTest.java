@@ -0,0 +1,163 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.attributes.StartFieldAttribute;
+import com.bytezone.dm3270.display.Cursor;
+import com.bytezone.dm3270.display.Field;
+import com.bytezone.dm3270.display.Pen;
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.streams.TelnetState;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.junit.Test;
+
+public class CursorTest {
+
+  private static final ScreenDimensions SCREEN_DIMENSIONS = new ScreenDimensions(24, 80);
+  private static final byte PROTECTED_ATTRIBUTE = 0x20;
+  private static final byte UNPROTECTED_ATTRIBUTE = 0x00;
+  private static final Consumer<Screen> NO_SETUP = s -> {
+  };
+
+  private Screen buildScreen(Charset charset, int... unprotectedFieldsPositions) {
+    charset.load();
+    Screen screen = new Screen(SCREEN_DIMENSIONS, null, new TelnetState(), charset);
+    Pen pen = screen.getPen();
+    for (int position : unprotectedFieldsPositions) {
+      pen.moveTo(position);
+      pen.startField(new StartFieldAttribute(UNPROTECTED_ATTRIBUTE));
+      pen.moveTo((position + 10) % SCREEN_DIMENSIONS.size);
+      pen.startField(new StartFieldAttribute(PROTECTED_ATTRIBUTE));
+    }
+    screen.buildFields();
+    return screen;
+  }
+
+  private Cursor moveCursor(Screen screen, int position) {
+    Cursor cursor = screen.getScreenCursor();
+    cursor.moveTo(position);
+    cursor.setVisible(true);
+    return cursor;
+  }
+
+  @Test
+  public void shouldTypeShiftedDoubleByteCodesWhenTypeTextWithDoubleByteChars() {
+    Screen screen = buildScreen(Charset.CP930, 0);
+    assertThat(moveCursor(screen, 1).typeText("A一B")).isEqualTo(6);
+    assertThat(getBytes(screen, 1, 6)).containsExactly((byte) 0xC1, Charset.SHIFT_OUT,
+        (byte) 0x45, (byte) 0x41, Charset.SHIFT_IN, (byte) 0xC2);
+  }
+
+  private byte[] getBytes(Screen screen, int position, int length) {
+    byte[] ret = new byte[length];
+    for (int i = 0; i < length; i++) {
+      ret[i] = screen.getScreenPosition(position + i).getByte();
+    }
+    return ret;
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsInOverwriteMode() {
+    assertTypeCharsMatchesTypeChar(s -> s.setPositionText(1, "XYZ"), 2, "AB", 0);
+  }
+
+  private void assertTypeCharsMatchesTypeChar(Consumer<Screen> setup, int cursorPosition,
+      String text, int... unprotectedFieldsPositions) {
+    Screen expected = buildScreen(Charset.CP1047, unprotectedFieldsPositions);
+    setup.accept(expected);
+    Screen actual = buildScreen(Charset.CP1047, unprotectedFieldsPositions);
+    setup.accept(actual);
+    byte[] values = new byte[text.length()];
+    Charset.CP1047.encode(text, values, 0);
+
+    Cursor expectedCursor = moveCursor(expected, cursorPosition);
+    for (byte value : values) {
+      expectedCursor.typeChar(value);
+    }
+    moveCursor(actual, cursorPosition).typeChars(values);
+
+    assertThat(getBytes(actual, 0, SCREEN_DIMENSIONS.size))
+        .isEqualTo(getBytes(expected, 0, SCREEN_DIMENSIONS.size));
+    assertThat(actual.getScreenCursor().getLocation()).isEqualTo(expectedCursor.getLocation());
+    assertThat(getModifiedFlags(actual)).isEqualTo(getModifiedFlags(expected));
+  }
+
+  private List<Boolean> getModifiedFlags(Screen screen) {
+    return screen.getFieldManager().getFields().stream()
+        .map(Field::isModified)
+        .collect(Collectors.toList());
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsInInsertMode() {
+    assertTypeCharsMatchesTypeChar(s -> {
+      s.setPositionText(1, "XYZ");
+      s.toggleInsertMode();
+    }, 2, "AB", 0);
+  }
+
+  @Test
+  public void shouldTypeOnlyFreePositionsWhenTypeCharsInInsertModeWithAlmostFullField() {
+    assertTypeCharsMatchesTypeChar(s -> {
+      s.setPositionText(1, "STUVWXYZ");
+      s.toggleInsertMode();
+    }, 3, "ABC", 0);
+  }
+
+  @Test
+  public void shouldReturnOnlyFreePositionsWhenTypeCharsInInsertModeWithAlmostFullField() {
+    Screen screen = buildScreen(Charset.CP1047, 0);
+    screen.setPositionText(1, "STUVWXYZ");
+    screen.toggleInsertMode();
+    assertThat(moveCursor(screen, 3).typeChars(new byte[]{(byte) 0xC1, (byte) 0xC2}))
+        .isEqualTo(1);
+  }
+
+  @Test
+  public void shouldTypeNothingWhenTypeCharsInInsertModeWithFullField() {
+    Screen screen = buildScreen(Charset.CP1047, 0);
+    screen.setPositionText(1, "RSTUVWXYZ");
+    screen.toggleInsertMode();
+    assertThat(moveCursor(screen, 3).typeChars(new byte[]{(byte) 0xC1})).isEqualTo(0);
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsInInsertModeWithFullField() {
+    assertTypeCharsMatchesTypeChar(s -> {
+      s.setPositionText(1, "RSTUVWXYZ");
+      s.toggleInsertMode();
+    }, 3, "AB", 0, 20);
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsSpillIntoNextField() {
+    assertTypeCharsMatchesTypeChar(NO_SETUP, 5, "ABCDEFGHIJ", 0, 20);
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsSpillIntoSeveralFields() {
+    assertTypeCharsMatchesTypeChar(NO_SETUP, 1, "ABCDEFGHIJKLMNOPQRSTUVWXY", 0, 20, 40);
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsSpillIntoSeveralFieldsInInsertMode() {
+    assertTypeCharsMatchesTypeChar(s -> {
+      s.setPositionText(21, "XY");
+      s.toggleInsertMode();
+    }, 1, "ABCDEFGHIJKLMNOPQRSTUVWXY", 0, 20, 40);
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsExceedAllFields() {
+    assertTypeCharsMatchesTypeChar(NO_SETUP, 1, "ABCDEFGHIJKL", 0);
+  }
+
+  @Test
+  public void shouldTypeSameAsTypeCharWhenTypeCharsInFieldWrappingAtEndOfScreen() {
+    assertTypeCharsMatchesTypeChar(NO_SETUP, SCREEN_DIMENSIONS.size - 3, "ABCDEFGHIJ", SCREEN_DIMENSIONS.size - 5, 40);
+  }
+
+}
@@ -0,0 +1,105 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.EventDispatcher.OverflowPolicy;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.After;
+import org.junit.Test;
+
+public class EventDispatcherTest {
+
+  private static final long TIMEOUT_MILLIS = 10000;
+  private static final String DELIVERY_THREAD_NAME = "events";
+
+  private final ExecutorService executor = Executors.newSingleThreadExecutor(
+      r -> new Thread(r, DELIVERY_THREAD_NAME));
+  // tasks of the manual executor, only run when requested by tests
+  private final List<Runnable> pendingTasks = new ArrayList<>();
+  private final List<Integer> deliveredEvents = Collections.synchronizedList(new ArrayList<>());
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void shouldDeliverEventsInDispatchOrder() throws Exception {
+    EventDispatcher dispatcher = new EventDispatcher(executor, 1000, OverflowPolicy.BLOCK);
+    List<Integer> events = IntStream.range(0, 500).boxed().collect(Collectors.toList());
+    events.forEach(e -> dispatchEvent(dispatcher, e));
+    awaitDelivery(dispatcher);
+    assertThat(deliveredEvents).isEqualTo(events);
+  }
+
+  private void dispatchEvent(EventDispatcher dispatcher, int event) {
+    dispatcher.dispatch(() -> deliveredEvents.add(event));
+  }
+
+  private void awaitDelivery(EventDispatcher dispatcher) throws InterruptedException {
+    CountDownLatch delivered = new CountDownLatch(1);
+    dispatcher.dispatch(delivered::countDown);
+    assertThat(delivered.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+  }
+
+  @Test
+  public void shouldDeliverEventsInExecutorThread() throws Exception {
+    EventDispatcher dispatcher = new EventDispatcher(executor, 10, OverflowPolicy.BLOCK);
+    List<String> threadNames = Collections.synchronizedList(new ArrayList<>());
+    for (int i = 0; i < 3; i++) {
+      dispatcher.dispatch(() -> threadNames.add(Thread.currentThread().getName()));
+    }
+    awaitDelivery(dispatcher);
+    assertThat(threadNames).containsOnly(DELIVERY_THREAD_NAME).hasSize(3);
+  }
+
+  @Test
+  public void shouldDeliverLastEventsWhenDiscardOldestAndQueueIsFull() {
+    EventDispatcher dispatcher = new EventDispatcher(pendingTasks::add, 2,
+        OverflowPolicy.DISCARD_OLDEST);
+    IntStream.range(0, 4).forEach(e -> dispatchEvent(dispatcher, e));
+    runPendingTasks();
+    assertThat(deliveredEvents).containsExactly(2, 3);
+  }
+
+  private void runPendingTasks() {
+    while (!pendingTasks.isEmpty()) {
+      pendingTasks.remove(0).run();
+    }
+  }
+
+  @Test
+  public void shouldDeliverFirstEventsWhenDiscardNewestAndQueueIsFull() {
+    EventDispatcher dispatcher = new EventDispatcher(pendingTasks::add, 2,
+        OverflowPolicy.DISCARD_NEWEST);
+    IntStream.range(0, 4).forEach(e -> dispatchEvent(dispatcher, e));
+    runPendingTasks();
+    assertThat(deliveredEvents).containsExactly(0, 1);
+  }
+
+  @Test
+  public void shouldQueueAllEventsAndWaitForCapacityWhenBlockAndQueueIsFull()
+      throws Exception {
+    EventDispatcher dispatcher = new EventDispatcher(pendingTasks::add, 2, OverflowPolicy.BLOCK);
+    IntStream.range(0, 4).forEach(e -> dispatchEvent(dispatcher, e));
+    CountDownLatch capacityAvailable = new CountDownLatch(1);
+    Thread waiter = new Thread(() -> {
+      dispatcher.awaitCapacity();
+      capacityAvailable.countDown();
+    });
+    waiter.start();
+    assertThat(capacityAvailable.await(100, TimeUnit.MILLISECONDS)).isFalse();
+    runPendingTasks();
+    assertThat(capacityAvailable.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+    assertThat(deliveredEvents).containsExactly(0, 1, 2, 3);
+  }
+
+}
@@ -0,0 +1,109 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.attributes.StartFieldAttribute;
+import com.bytezone.dm3270.display.Field;
+import com.bytezone.dm3270.display.FieldManager;
+import com.bytezone.dm3270.display.Pen;
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.streams.TelnetState;
+import java.util.Optional;
+import org.junit.Before;
+import org.junit.Test;
+
+public class FieldManagerTest {
+
+  private static final byte PROTECTED_ATTRIBUTE = 0x20;
+  private static final byte UNPROTECTED_ATTRIBUTE = 0x00;
+
+  private Screen screen;
+  private FieldManager fieldManager;
+
+  @Before
+  public void setup() {
+    Charset.CP1047.load();
+    screen = new Screen(new ScreenDimensions(24, 80), null, new TelnetState(), Charset.CP1047);
+    fieldManager = screen.getFieldManager();
+    addField(0, PROTECTED_ATTRIBUTE, "CustomerNo:");
+    addField(12, UNPROTECTED_ATTRIBUTE, "");
+    addField(23, PROTECTED_ATTRIBUTE, "Order No:");
+    addField(33, UNPROTECTED_ATTRIBUTE, "");
+    addField(44, PROTECTED_ATTRIBUTE, "");
+    screen.buildFields();
+  }
+
+  private void addField(int position, byte attribute, String text) {
+    Pen pen = screen.getPen();
+    pen.moveTo(position);
+    pen.startField(new StartFieldAttribute(attribute));
+    screen.setPositionText(position + 1, text);
+  }
+
+  @Test
+  public void shouldGetFieldAfterLabelWhenGetFieldByWholeTextLabel() {
+    assertThat(getFieldLocationByLabel("CustomerNo:")).contains(13);
+  }
+
+  private Optional<Integer> getFieldLocationByLabel(String label) {
+    return fieldManager.getFieldByLabel(label).map(Field::getFirstLocation);
+  }
+
+  @Test
+  public void shouldGetFieldAfterLabelWhenGetFieldByTokenLabel() {
+    assertThat(getFieldLocationByLabel("Order")).contains(34);
+  }
+
+  @Test
+  public void shouldGetFirstFieldWithTokenWhenGetFieldByLabelContainedInPreviousField() {
+    assertThat(getFieldLocationByLabel("No:")).contains(34);
+  }
+
+  @Test
+  public void shouldGetNoFieldWhenGetFieldBySubstringLabel() {
+    assertThat(getFieldLocationByLabel("Customer")).isEmpty();
+  }
+
+  @Test
+  public void shouldGetLabelFieldWhenGetLabelField() {
+    assertThat(fieldManager.getLabelField("Order No:").map(Field::getFirstLocation))
+        .contains(24);
+  }
+
+  @Test
+  public void shouldGetFirstFieldOnScreenWhenGetFirstLabelFieldContainedInPreviousField() {
+    assertThat(getFirstLabelFieldLocation("No:")).contains(1);
+  }
+
+  private Optional<Integer> getFirstLabelFieldLocation(String label) {
+    return fieldManager.getFirstLabelField(label).map(Field::getFirstLocation);
+  }
+
+  @Test
+  public void shouldGetTokenFieldWhenGetFirstLabelFieldNotContainedInPreviousField() {
+    assertThat(getFirstLabelFieldLocation("Order")).contains(24);
+  }
+
+  @Test
+  public void shouldGetNoFieldWhenGetFirstLabelFieldBySubstringLabel() {
+    assertThat(getFirstLabelFieldLocation("Customer")).isEmpty();
+  }
+
+  @Test
+  public void shouldGetFieldByNewLabelWhenBuildFieldsAfterLabelChange() {
+    assertThat(getFieldLocationByLabel("Order")).contains(34);
+    screen.setPositionText(24, "Item  No:");
+    screen.buildFields();
+    assertThat(getFieldLocationByLabel("Order")).isEmpty();
+    assertThat(getFieldLocationByLabel("Item")).contains(34);
+  }
+
+  @Test
+  public void shouldGetNoFieldWhenGetFieldByLabelAfterReset() {
+    assertThat(getFieldLocationByLabel("Order")).contains(34);
+    fieldManager.reset();
+    assertThat(getFieldLocationByLabel("Order")).isEmpty();
+  }
+
+}
@@ -0,0 +1,124 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.attributes.StartFieldAttribute;
+import com.bytezone.dm3270.display.FieldManager;
+import com.bytezone.dm3270.display.Pen;
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.ScreenClassifier;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.display.ScreenTemplate;
+import com.bytezone.dm3270.streams.TelnetState;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScreenClassifierTest {
+
+  private static final byte PROTECTED_ATTRIBUTE = 0x20;
+  private static final byte UNPROTECTED_ATTRIBUTE = 0x00;
+
+  private Screen screen;
+  private FieldManager fieldManager;
+  private final ScreenClassifier classifier = new ScreenClassifier();
+
+  @Before
+  public void setup() {
+    Charset.CP1047.load();
+    screen = new Screen(new ScreenDimensions(24, 80), null, new TelnetState(), Charset.CP1047);
+    fieldManager = screen.getFieldManager();
+    fieldManager.setScreenClassifier(classifier);
+    addField(0, PROTECTED_ATTRIBUTE, "CustomerNo:");
+    addField(12, UNPROTECTED_ATTRIBUTE, "");
+    addField(23, PROTECTED_ATTRIBUTE, "Order No:");
+    addField(33, UNPROTECTED_ATTRIBUTE, "");
+    addField(44, PROTECTED_ATTRIBUTE, "");
+  }
+
+  private void addField(int position, byte attribute, String text) {
+    Pen pen = screen.getPen();
+    pen.moveTo(position);
+    pen.startField(new StartFieldAttribute(attribute));
+    screen.setPositionText(position + 1, text);
+  }
+
+  @Test
+  public void shouldGetFirstRegisteredTemplateWhenSeveralTemplatesMatch() {
+    ScreenTemplate item = new ScreenTemplate("item");
+    item.addField(1, 14, 10, false);
+    item.addLiteral(1, 25, "Item");
+    classifier.addTemplate(item);
+    ScreenTemplate customer = new ScreenTemplate("customer");
+    customer.addField(1, 2, 11, true);
+    classifier.addTemplate(customer);
+    ScreenTemplate order = new ScreenTemplate("order");
+    order.addField(1, 14, 10, false);
+    order.addLiteral(1, 25, "Order");
+    classifier.addTemplate(order);
+    screen.buildFields();
+    assertThat(fieldManager.getScreenTemplate()).contains(customer);
+  }
+
+  @Test
+  public void shouldGetTemplateWithoutFieldsWhenScreenShowsItsLiterals() {
+    ScreenTemplate item = new ScreenTemplate("item");
+    item.addLiteral(1, 25, "Item No:");
+    classifier.addTemplate(item);
+    ScreenTemplate order = new ScreenTemplate("order");
+    order.addLiteral(1, 25, "Order No:");
+    classifier.addTemplate(order);
+    screen.buildFields();
+    assertThat(fieldManager.getScreenTemplate()).contains(order);
+  }
+
+  @Test
+  public void shouldIgnoreTemplatesOutsideScreenWhenClassify() {
+    ScreenTemplate rowOutside = new ScreenTemplate("rowOutside");
+    rowOutside.addField(25, 2, 10, false);
+    classifier.addTemplate(rowOutside);
+    ScreenTemplate columnOutside = new ScreenTemplate("columnOutside");
+    columnOutside.addLiteral(1, 81, "Order");
+    classifier.addTemplate(columnOutside);
+    ScreenTemplate literalBeyondEnd = new ScreenTemplate("literalBeyondEnd");
+    literalBeyondEnd.addLiteral(24, 78, "Order");
+    classifier.addTemplate(literalBeyondEnd);
+    ScreenTemplate fieldLongerThanScreen = new ScreenTemplate("fieldLongerThanScreen");
+    fieldLongerThanScreen.addField(1, 2, 1920, true);
+    classifier.addTemplate(fieldLongerThanScreen);
+    ScreenTemplate order = buildOrderTemplate();
+    classifier.addTemplate(order);
+    screen.buildFields();
+    assertThat(fieldManager.getScreenTemplate()).contains(order);
+  }
+
+  @Test
+  public void shouldGetNoTemplateWhenReset() {
+    ScreenTemplate order = buildOrderTemplate();
+    classifier.addTemplate(order);
+    screen.buildFields();
+    fieldManager.reset();
+    assertThat(fieldManager.getScreenTemplate()).isEmpty();
+  }
+
+  private ScreenTemplate buildOrderTemplate() {
+    ScreenTemplate order = new ScreenTemplate("order");
+    order.addField(1, 35, 10, false);
+    order.addLiteral(1, 25, "Order");
+    return order;
+  }
+
+  @Test
+  public void shouldGetNewTemplateWhenBuildFieldsAfterResetWithChangedScreen() {
+    classifier.addTemplate(buildOrderTemplate());
+    ScreenTemplate item = new ScreenTemplate("item");
+    item.addField(1, 35, 10, false);
+    item.addLiteral(1, 25, "Item");
+    classifier.addTemplate(item);
+    screen.buildFields();
+    fieldManager.reset();
+    screen.setPositionText(24, "Item  No:");
+    screen.buildFields();
+    assertThat(fieldManager.getScreenTemplate()).contains(item);
+  }
+
+}
@@ -0,0 +1,161 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.streams.TelnetState;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import com.bytezone.dm3270.viewer.ScreenFrameSink;
+import com.bytezone.dm3270.viewer.ScreenStreamer;
+import com.bytezone.dm3270.viewer.SseScreenServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScreenStreamerTest {
+
+  private static final int PERIOD_MILLIS = 10;
+  private static final long TIMEOUT_MILLIS = 5000;
+
+  private Screen screen;
+  private ScheduledExecutorService scheduler;
+  private ScreenStreamer streamer;
+  private SseScreenServer server;
+  private HttpURLConnection connection;
+
+  @Before
+  public void setup() throws IOException {
+    Charset.CP1047.load();
+    screen = new Screen(new ScreenDimensions(24, 80), null, new TelnetState(), Charset.CP1047);
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    streamer = new ScreenStreamer(screen::getSnapshot);
+    streamer.start(scheduler, PERIOD_MILLIS);
+    server = new SseScreenServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0),
+        streamer);
+    server.start();
+  }
+
+  @After
+  public void teardown() {
+    if (connection != null) {
+      connection.disconnect();
+    }
+    server.close();
+    streamer.close();
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  public void shouldGetKeyframeWithWholeScreenWhenConnect() throws Exception {
+    String frame = readEventData(connect());
+    assertThat(frame).startsWith("{\"type\":\"key\",").contains("\"rows\":24,\"columns\":80");
+  }
+
+  private BufferedReader connect() throws IOException {
+    InetSocketAddress address = server.getAddress();
+    connection = (HttpURLConnection) new URL("http://" + address.getHostString() + ":"
+        + address.getPort() + "/").openConnection();
+    return new BufferedReader(
+        new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8));
+  }
+
+  private String readEventData(BufferedReader reader) throws IOException {
+    String line = reader.readLine();
+    while (line != null && !line.startsWith("data: ")) {
+      line = reader.readLine();
+    }
+    return line == null ? null : line.substring("data: ".length());
+  }
+
+  @Test
+  public void shouldGetDeltaWithOnlyChangedCellsWhenScreenChanges() throws Exception {
+    BufferedReader reader = connect();
+    readEventData(reader);
+    setScreenText();
+    assertThat(readEventData(reader)).startsWith("{\"type\":\"delta\",")
+        .contains("\"runs\":[[85,0,\"HELLO\"]]");
+  }
+
+  @Test
+  public void shouldKeepSendingFramesToOtherSinksWhenSinkFails() throws Exception {
+    CountDownLatch failingSinkClosed = new CountDownLatch(1);
+    streamer.addSink(new ScreenFrameSink() {
+      @Override
+      public void send(String frame) {
+        throw new IllegalStateException("Broken sink");
+      }
+
+      @Override
+      public void close() {
+        failingSinkClosed.countDown();
+      }
+    });
+    QueueSink sink = new QueueSink();
+    streamer.addSink(sink);
+    assertThat(sink.awaitFrame()).startsWith("{\"type\":\"key\",");
+    assertThat(failingSinkClosed.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)).isTrue();
+    setScreenText();
+    assertThat(sink.awaitFrame()).startsWith("{\"type\":\"delta\",");
+  }
+
+  private void setScreenText() {
+    screen.getSessionExecutor().run(() -> {
+      screen.setPositionText(85, "HELLO");
+      screen.publishSnapshot();
+    });
+  }
+
+  private static class QueueSink implements ScreenFrameSink {
+
+    private final BlockingQueue<String> frames = new LinkedBlockingQueue<>();
+
+    @Override
+    public void send(String frame) {
+      frames.add(frame);
+    }
+
+    private String awaitFrame() throws InterruptedException {
+      return frames.poll(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() {
+    }
+
+  }
+
+  @Test
+  public void shouldKeepCheckingScreenChangesWhenSnapshotSupplierFails() throws Exception {
+    AtomicInteger failures = new AtomicInteger(3);
+    Supplier<ScreenSnapshot> snapshotSupplier = () -> {
+      if (failures.getAndDecrement() > 0) {
+        throw new IllegalStateException("Snapshot not available");
+      }
+      return screen.getSnapshot();
+    };
+    try (ScreenStreamer failingStreamer = new ScreenStreamer(snapshotSupplier)) {
+      QueueSink sink = new QueueSink();
+      failingStreamer.addSink(sink);
+      failingStreamer.start(scheduler, PERIOD_MILLIS);
+      assertThat(sink.awaitFrame()).startsWith("{\"type\":\"key\",");
+    }
+  }
+
+}
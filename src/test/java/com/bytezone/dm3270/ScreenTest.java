@@ -0,0 +1,158 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import com.bytezone.dm3270.application.KeyboardStatusChangedEvent;
+import com.bytezone.dm3270.attributes.StartFieldAttribute;
+import com.bytezone.dm3270.display.Field;
+import com.bytezone.dm3270.display.Pen;
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.Screen.ScreenOption;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import com.bytezone.dm3270.streams.TelnetState;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScreenTest {
+
+  private static final ScreenDimensions DEFAULT_DIMENSIONS = new ScreenDimensions(24, 80);
+  private static final byte PROTECTED_ATTRIBUTE = 0x20;
+
+  private Screen screen;
+  private final List<KeyboardStatusChangedEvent> keyboardEvents = new ArrayList<>();
+
+  @Before
+  public void setup() {
+    Charset.CP1047.load();
+    screen = new Screen(DEFAULT_DIMENSIONS, null, new TelnetState(), Charset.CP1047);
+    screen.setCoalescingChanges(true);
+    screen.addKeyboardStatusChangeListener(keyboardEvents::add);
+  }
+
+  @Test
+  public void shouldNotNotifyKeyboardLockWhileChangesAreHeld() {
+    screen.holdChanges();
+    screen.lockKeyboard("ENTER");
+    assertThat(keyboardEvents).isEmpty();
+  }
+
+  @Test
+  public void shouldNotifyKeyboardLockWhenReleaseChangesAfterLockingWhileHeld() {
+    screen.holdChanges();
+    screen.lockKeyboard("ENTER");
+    screen.releaseChanges();
+    assertThat(keyboardEvents).hasSize(1);
+    assertThat(keyboardEvents.get(0).keyboardLocked).isTrue();
+  }
+
+  @Test
+  public void shouldNotifyOnlyFinalKeyboardStatusWhenReleaseChangesAfterSeveralChanges() {
+    screen.holdChanges();
+    screen.restoreKeyboard();
+    screen.lockKeyboard("ENTER");
+    screen.releaseChanges();
+    assertThat(keyboardEvents).hasSize(1);
+    assertThat(keyboardEvents.get(0).keyboardLocked).isTrue();
+  }
+
+  @Test
+  public void shouldGetSameSnapshotWhenScreenIsNotChanged() {
+    ScreenSnapshot snapshot = screen.getSnapshot();
+    assertThat(screen.getSnapshot()).isSameAs(snapshot);
+  }
+
+  @Test
+  public void shouldGetSnapshotWithChangesWhenScreenIsChanged() {
+    ScreenSnapshot snapshot = screen.getSnapshot();
+    screen.setPositionText(0, "HELLO");
+    screen.publishSnapshot();
+    ScreenSnapshot changed = screen.getSnapshot();
+    assertThat(changed.getGeneration()).isGreaterThan(snapshot.getGeneration());
+    assertThat(changed.getText()).startsWith("HELLO");
+  }
+
+  @Test
+  public void shouldGetSnapshotWithoutWaitingWhenScreenIsBeingModified() throws Exception {
+    ScreenSnapshot snapshot = screen.getSnapshot();
+    CountDownLatch modifying = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Void> modification = CompletableFuture.runAsync(() ->
+        screen.getSessionExecutor().run(() -> {
+          screen.setPositionText(0, "HELLO");
+          modifying.countDown();
+          awaitLatch(release);
+          screen.publishSnapshot();
+        }));
+    try {
+      modifying.await();
+      assertThat(CompletableFuture.supplyAsync(screen::getSnapshot).get(1, TimeUnit.SECONDS))
+          .isSameAs(snapshot);
+    } finally {
+      release.countDown();
+    }
+    modification.get(1, TimeUnit.SECONDS);
+    assertThat(screen.getSnapshot().getText()).startsWith("HELLO");
+  }
+
+  private static void awaitLatch(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  @Test
+  public void shouldGetScreenLayoutAndContentsOfEachSizeWhenSwitchingToAlternateAndBack() {
+    ScreenDimensions alternateDimensions = new ScreenDimensions(27, 132);
+    Screen alternating = new Screen(DEFAULT_DIMENSIONS, alternateDimensions, new TelnetState(),
+        Charset.CP1047);
+    alternating.clearScreen(ScreenOption.DEFAULT);
+    addRowField(alternating, 1, "DEFAULT");
+    assertLayout(alternating, DEFAULT_DIMENSIONS, "DEFAULT");
+
+    alternating.clearScreen(ScreenOption.ALTERNATE);
+    alternating.publishSnapshot();
+    assertThat(alternating.getSnapshot().getText().trim()).isEmpty();
+    addRowField(alternating, 1, "ALTERNATE");
+    assertLayout(alternating, alternateDimensions, "ALTERNATE");
+
+    alternating.clearScreen(ScreenOption.DEFAULT);
+    alternating.publishSnapshot();
+    assertThat(alternating.getSnapshot().getText().trim()).isEmpty();
+    addRowField(alternating, 1, "DEFAULT");
+    assertLayout(alternating, DEFAULT_DIMENSIONS, "DEFAULT");
+  }
+
+  private void addRowField(Screen screen, int row, String text) {
+    int position = row * screen.getScreenDimensions().columns;
+    Pen pen = screen.getPen();
+    pen.moveTo(position);
+    pen.startField(new StartFieldAttribute(PROTECTED_ATTRIBUTE));
+    screen.setPositionText(position + 1, text);
+    screen.buildFields();
+    screen.publishSnapshot();
+  }
+
+  private void assertLayout(Screen screen, ScreenDimensions dimensions, String rowText) {
+    assertThat(screen.getScreenDimensions()).isSameAs(dimensions);
+    assertThat(screen.getBufferAddressCodec().getColumns()).isEqualTo(dimensions.columns);
+    // the only field spans up to the end of the screen
+    assertThat(screen.getFieldManager().getRowFields(1))
+        .extracting(Field::getFirstLocation, Field::getDisplayLength)
+        .containsExactly(
+            tuple(dimensions.columns + 1, dimensions.size - dimensions.columns - 1));
+    String[] rows = screen.getSnapshot().getText().split("\n");
+    assertThat(rows).hasSize(dimensions.rows);
+    assertThat(rows[1]).hasSize(dimensions.columns);
+    assertThat(rows[1].substring(1)).startsWith(rowText);
+  }
+
+}
@@ -0,0 +1,43 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.display.ScreenContext;
+import com.bytezone.dm3270.display.ScreenPosition;
+import com.bytezone.dm3270.display.ScreenTextDecoder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ScreenTextDecoderTest {
+
+  // A, shift out, double byte char U+4E00, shift in, B
+  private static final byte[] DBCS_BYTES = {(byte) 0xC1, 0x0E, 0x45, 0x41, 0x0F, (byte) 0xC2};
+
+  @BeforeClass
+  public static void setupClass() {
+    Charset.CP930.load();
+  }
+
+  @Test
+  public void shouldGetOneCharPerPositionWhenDecodeAligned() {
+    assertThat(decode(true)).isEqualTo("A 一\u0000 B");
+  }
+
+  @Test
+  public void shouldSkipSecondBytePositionWhenDecodeNotAligned() {
+    assertThat(decode(false)).isEqualTo("A 一 B");
+  }
+
+  private String decode(boolean aligned) {
+    ScreenTextDecoder decoder = new ScreenTextDecoder(Charset.CP930, aligned);
+    char[] chars = new char[DBCS_BYTES.length];
+    int pos = 0;
+    for (int i = 0; i < DBCS_BYTES.length; i++) {
+      ScreenPosition sp = new ScreenPosition(i, ScreenContext.DEFAULT_CONTEXT, Charset.CP930);
+      sp.setChar(DBCS_BYTES[i]);
+      pos = decoder.decode(sp, chars, pos);
+    }
+    return new String(chars, 0, pos);
+  }
+
+}
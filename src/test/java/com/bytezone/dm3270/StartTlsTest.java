@@ -0,0 +1,139 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.display.ScreenDimensions;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.security.KeyStore;
+import java.security.SecureRandom;
+import java.security.cert.X509Certificate;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StartTlsTest {
+
+  private static final byte IAC = (byte) 0xFF;
+  private static final byte DO = (byte) 0xFD;
+  private static final byte WILL = (byte) 0xFB;
+  private static final byte WONT = (byte) 0xFC;
+  private static final byte SB = (byte) 0xFA;
+  private static final byte SE = (byte) 0xF0;
+  private static final byte START_TLS = 0x2E;
+  private static final byte FOLLOWS = 1;
+  private static final byte TERMINAL_TYPE = 0x18;
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  private ServerSocket server;
+  private TerminalClient client;
+
+  @Before
+  public void setup() throws IOException {
+    server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    client = new TerminalClient(2, new ScreenDimensions(24, 80));
+    client.setConnectionTimeoutMillis((int) TIMEOUT_MILLIS);
+  }
+
+  @After
+  public void teardown() throws Exception {
+    client.disconnect();
+    server.close();
+  }
+
+  @Test
+  public void shouldNegotiateOverTlsWhenServerRequestsStartTls() throws Exception {
+    client.setStartTlsContext(buildClientSslContext());
+    CompletableFuture<byte[]> reply = CompletableFuture.supplyAsync(this::serveStartTls);
+    client.connect(server.getInetAddress().getHostAddress(), server.getLocalPort());
+    assertThat(reply.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+        .containsExactly(IAC, WILL, TERMINAL_TYPE);
+  }
+
+  private byte[] serveStartTls() {
+    try (Socket socket = server.accept()) {
+      socket.setSoTimeout((int) TIMEOUT_MILLIS);
+      OutputStream out = socket.getOutputStream();
+      InputStream in = socket.getInputStream();
+      out.write(new byte[]{IAC, DO, START_TLS});
+      assertThat(read(in, 3)).containsExactly(IAC, WILL, START_TLS);
+      out.write(new byte[]{IAC, SB, START_TLS, FOLLOWS, IAC, SE});
+      assertThat(read(in, 6)).containsExactly(IAC, SB, START_TLS, FOLLOWS, IAC, SE);
+      SSLSocket sslSocket = (SSLSocket) buildServerSslContext().getSocketFactory()
+          .createSocket(socket, null, socket.getPort(), false);
+      sslSocket.setUseClientMode(false);
+      sslSocket.startHandshake();
+      sslSocket.getOutputStream().write(new byte[]{IAC, DO, TERMINAL_TYPE});
+      return read(sslSocket.getInputStream(), 3);
+    } catch (Exception e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private byte[] read(InputStream in, int length) throws IOException {
+    byte[] ret = new byte[length];
+    new DataInputStream(in).readFully(ret);
+    return ret;
+  }
+
+  private SSLContext buildServerSslContext() throws Exception {
+    KeyStore keyStore = KeyStore.getInstance("JKS");
+    char[] password = "changeit".toCharArray();
+    try (InputStream keyStoreStream = getClass().getResourceAsStream("/keystore.jks")) {
+      keyStore.load(keyStoreStream, password);
+    }
+    KeyManagerFactory keyManagerFactory = KeyManagerFactory
+        .getInstance(KeyManagerFactory.getDefaultAlgorithm());
+    keyManagerFactory.init(keyStore, password);
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    sslContext.init(keyManagerFactory.getKeyManagers(), null, new SecureRandom());
+    return sslContext;
+  }
+
+  private SSLContext buildClientSslContext() throws Exception {
+    SSLContext sslContext = SSLContext.getInstance("TLS");
+    TrustManager trustManager = new X509TrustManager() {
+
+      public X509Certificate[] getAcceptedIssuers() {
+        return new X509Certificate[0];
+      }
+
+      public void checkClientTrusted(X509Certificate[] certs, String authType) {
+      }
+
+      public void checkServerTrusted(X509Certificate[] certs, String authType) {
+      }
+    };
+    sslContext.init(null, new TrustManager[]{trustManager}, new SecureRandom());
+    return sslContext;
+  }
+
+  @Test
+  public void shouldRefuseStartTlsWhenNoStartTlsContext() throws Exception {
+    CompletableFuture<byte[]> reply = CompletableFuture.supplyAsync(() -> {
+      try (Socket socket = server.accept()) {
+        socket.setSoTimeout((int) TIMEOUT_MILLIS);
+        socket.getOutputStream().write(new byte[]{IAC, DO, START_TLS});
+        return read(socket.getInputStream(), 3);
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    client.connect(server.getInetAddress().getHostAddress(), server.getLocalPort());
+    assertThat(reply.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+        .containsExactly(IAC, WONT, START_TLS);
+  }
+
+}
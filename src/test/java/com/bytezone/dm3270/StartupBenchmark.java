@@ -0,0 +1,106 @@
+package com.bytezone.dm3270;
+
+import com.bytezone.dm3270.display.ScreenDimensions;
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import us.abstracta.wiresham.Flow;
+import us.abstracta.wiresham.ServerPacketStep;
+import us.abstracta.wiresham.VirtualTcpService;
+
+/**
+ * Measures the time from the start of the process until the first unlocked screen of a session,
+ * to compare startup of short lived processes (plain JVM, CDS archives, native images, etc).
+ * <p>
+ * Usage:
+ * <ul>
+ * <li>No arguments: starts a stand-in host replaying login.yml flow (without recorded delays) in
+ * the same process, and connects to it.</li>
+ * <li>{@code --serve <port>}: only starts the stand-in host, so processes without test
+ * dependencies (like native images) can connect to it.</li>
+ * <li>{@code <host> <port>}: connects to the given host.</li>
+ * </ul>
+ * The process start time, in epoch millis, can be set with the startup.epochMillis system
+ * property (for example {@code -Dstartup.epochMillis=$(date +%s%3N)}) to include the time before
+ * the JVM records its start. Otherwise the JVM start time is used.
+ */
+public class StartupBenchmark {
+
+  private static final long TIMEOUT_MILLIS = 30000;
+
+  public static void main(String[] args) throws Exception {
+    if (args.length == 2 && "--serve".equals(args[0])) {
+      startStandInHost(Integer.parseInt(args[1]));
+      System.out.println("Stand-in host listening on port " + args[1]);
+      Thread.currentThread().join();
+      return;
+    }
+    long startMillis = Long.getLong("startup.epochMillis",
+        ManagementFactory.getRuntimeMXBean().getStartTime());
+    VirtualTcpService service = null;
+    String host;
+    int port;
+    if (args.length == 2) {
+      host = args[0];
+      port = Integer.parseInt(args[1]);
+    } else if (args.length == 0) {
+      service = startStandInHost(VirtualTcpService.DYNAMIC_PORT);
+      host = "localhost";
+      port = service.getPort();
+    } else {
+      System.err.println("Usage: StartupBenchmark [--serve <port> | <host> <port>]");
+      System.exit(1);
+      return;
+    }
+    try {
+      long connectMillis = System.currentTimeMillis();
+      awaitFirstUnlockedScreen(host, port);
+      long endMillis = System.currentTimeMillis();
+      System.out.println(String.format("First unlocked screen after %d ms since process start "
+          + "(%d ms since connect)", endMillis - startMillis, endMillis - connectMillis));
+    } finally {
+      if (service != null) {
+        service.stop(TIMEOUT_MILLIS);
+      }
+    }
+  }
+
+  private static VirtualTcpService startStandInHost(int port) throws Exception {
+    VirtualTcpService service = new VirtualTcpService();
+    service.setPort(port);
+    service.setSslEnabled(false);
+    Flow flow;
+    try (InputStream flowStream = StartupBenchmark.class.getResourceAsStream("/login.yml")) {
+      flow = Flow.fromYmlStream(flowStream);
+    }
+    // recorded delays would hide the client startup time
+    flow.getSteps().stream()
+        .filter(ServerPacketStep.class::isInstance)
+        .forEach(s -> ((ServerPacketStep) s).setDelayMillis(0));
+    service.setFlow(flow);
+    service.start();
+    return service;
+  }
+
+  private static void awaitFirstUnlockedScreen(String host, int port) throws Exception {
+    TerminalClient client = new TerminalClient(2, new ScreenDimensions(24, 80));
+    client.setTextOnly(true);
+    CountDownLatch unlocked = new CountDownLatch(1);
+    client.addKeyboardStatusListener(evt -> {
+      if (!evt.keyboardLocked) {
+        unlocked.countDown();
+      }
+    });
+    client.connect(host, port);
+    try {
+      if (!unlocked.await(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        throw new TimeoutException("No unlocked screen from " + host + ":" + port);
+      }
+    } finally {
+      client.disconnect();
+    }
+  }
+
+}
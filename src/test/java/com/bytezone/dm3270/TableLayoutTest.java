@@ -0,0 +1,56 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.bytezone.dm3270.scraping.TableLayout;
+import com.bytezone.dm3270.scraping.TableRow;
+import com.bytezone.dm3270.streams.TelnetState;
+import java.util.List;
+import java.util.stream.Collectors;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TableLayoutTest {
+
+  private static final int COLUMNS = 80;
+
+  private Screen screen;
+  private TableLayout layout;
+
+  @Before
+  public void setup() {
+    Charset.CP1047.load();
+    screen = new Screen(new ScreenDimensions(24, COLUMNS), null, new TelnetState(),
+        Charset.CP1047);
+    layout = new TableLayout(3, 6);
+    layout.addColumn("name", 1, 20);
+    layout.addColumn("tracks", 21, 6, Integer::valueOf);
+  }
+
+  @Test
+  public void shouldGetTypedNonBlankRowsWhenExtract() {
+    setRowText(3, "USER.DATA             12");
+    setRowText(5, "USER.LOAD            345");
+    screen.publishSnapshot();
+    List<TableRow> rows = layout.extract(screen.getSnapshot());
+    assertThat(rows.stream().map(r -> r.getRow() + ":" + r.getText("name") + ":"
+        + (int) r.getValue("tracks")).collect(Collectors.toList()))
+        .containsExactly("3:USER.DATA:12", "5:USER.LOAD:345");
+  }
+
+  private void setRowText(int row, String text) {
+    screen.setPositionText((row - 1) * COLUMNS, text);
+  }
+
+  @Test
+  public void shouldGetBlankRowsWithNullValuesWhenExtractWithoutSkippingBlankRows() {
+    layout.setSkipBlankRows(false);
+    screen.publishSnapshot();
+    List<TableRow> rows = layout.extract(screen.getSnapshot());
+    assertThat(rows).hasSize(4);
+    assertThat((Integer) rows.get(0).getValue("tracks")).isNull();
+  }
+
+}
@@ -0,0 +1,63 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.bytezone.dm3270.display.ScreenDimensions;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TelnetNegotiationTest {
+
+  private static final byte IAC = (byte) 0xFF;
+  private static final byte DO = (byte) 0xFD;
+  private static final byte WILL = (byte) 0xFB;
+  private static final byte BINARY = 0x00;
+  private static final byte TERMINAL_TYPE = 0x18;
+  private static final byte EOR = 0x19;
+  private static final long TIMEOUT_MILLIS = 10000;
+
+  private ServerSocket server;
+  private TerminalClient client;
+
+  @Before
+  public void setup() throws IOException {
+    server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    client = new TerminalClient(2, new ScreenDimensions(24, 80));
+    client.setConnectionTimeoutMillis((int) TIMEOUT_MILLIS);
+  }
+
+  @After
+  public void teardown() throws Exception {
+    client.disconnect();
+    server.close();
+  }
+
+  @Test
+  public void shouldSendAllRepliesInOneWriteWhenServerSendsSeveralOptionsTogether()
+      throws Exception {
+    CompletableFuture<byte[]> reply = CompletableFuture.supplyAsync(() -> {
+      try (Socket socket = server.accept()) {
+        socket.setSoTimeout((int) TIMEOUT_MILLIS);
+        socket.getOutputStream().write(new byte[]{IAC, DO, TERMINAL_TYPE, IAC, DO, BINARY, IAC,
+            DO, EOR});
+        byte[] buffer = new byte[64];
+        int length = socket.getInputStream().read(buffer);
+        return Arrays.copyOf(buffer, Math.max(length, 0));
+      } catch (IOException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+    client.connect(server.getInetAddress().getHostAddress(), server.getLocalPort());
+    assertThat(reply.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+        .containsExactly(IAC, WILL, TERMINAL_TYPE, IAC, WILL, BINARY, IAC, WILL, EOR);
+  }
+
+}
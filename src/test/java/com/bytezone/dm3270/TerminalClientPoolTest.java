@@ -0,0 +1,227 @@
+package com.bytezone.dm3270;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.bytezone.dm3270.display.ScreenDimensions;
+import com.google.common.base.Charsets;
+import com.google.common.io.Resources;
+import java.io.File;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import us.abstracta.wiresham.Flow;
+import us.abstracta.wiresham.VirtualTcpService;
+
+public class TerminalClientPoolTest {
+
+  private static final long TIMEOUT_MILLIS = 10000;
+  private static final int MAX_CONNECTIONS = 3;
+  private static final int CONNECTS_PER_SECOND = 5;
+  // tolerance for scheduling delays around the 200 millis between connects
+  private static final long MIN_CONNECTS_GAP_MILLIS = 180;
+  private static final long MAX_CONNECTS_GAP_MILLIS = 600;
+
+  private final VirtualTcpService service = new VirtualTcpService();
+  private TerminalClientPool pool;
+  private ConnectionScheduler scheduler;
+  private final List<TerminalClient> clients = new ArrayList<>();
+  private final AtomicInteger maxStartInFlight = new AtomicInteger();
+
+  @Before
+  public void setup() throws Exception {
+    service.setSslEnabled(false);
+    service.setMaxConnections(MAX_CONNECTIONS);
+    service.setFlow(Flow.fromYml(new File(getClass().getResource("/login.yml").getFile())));
+    service.start();
+  }
+
+  @After
+  public void teardown() throws Exception {
+    if (pool != null) {
+      pool.close();
+    }
+    if (scheduler != null) {
+      scheduler.close();
+    }
+    for (TerminalClient client : clients) {
+      client.disconnect();
+    }
+    service.stop(TIMEOUT_MILLIS);
+  }
+
+  private void startPool(int size) {
+    pool = new TerminalClientPool(() -> new TerminalClient(2, new ScreenDimensions(24, 80)),
+        "localhost", service.getPort(), size);
+    pool.setConnectTimeoutMillis(TIMEOUT_MILLIS);
+    pool.setConnectionScheduler(scheduler);
+    pool.start();
+  }
+
+  @Test
+  public void shouldLeaseConnectedClientWithWelcomeScreen() throws Exception {
+    startPool(1);
+    TerminalClient client = pool.lease(TIMEOUT_MILLIS);
+    assertThat(client.isKeyboardLocked()).isFalse();
+    assertThat(client.getScreenText().replace('\u0000', ' '))
+        .isEqualTo(Resources.toString(Resources.getResource("login-welcome-screen.txt"),
+            Charsets.UTF_8));
+    pool.release(client);
+  }
+
+  @Test
+  public void shouldLeaseSameClientWhenReleasedAndLeasedAgain() throws Exception {
+    startPool(1);
+    TerminalClient client = pool.lease(TIMEOUT_MILLIS);
+    pool.release(client);
+    assertThat(pool.lease(TIMEOUT_MILLIS)).isSameAs(client);
+  }
+
+  @Test(expected = TimeoutException.class)
+  public void shouldThrowTimeoutExceptionWhenNoClientAvailable() throws Exception {
+    startPool(1);
+    pool.lease(TIMEOUT_MILLIS);
+    pool.lease(500);
+  }
+
+  @Test
+  public void shouldLeaseConnectedClientWhenConnectingWithScheduler() throws Exception {
+    scheduler = new ConnectionScheduler(10, 1);
+    startPool(1);
+    TerminalClient client = pool.lease(TIMEOUT_MILLIS);
+    assertThat(client.isKeyboardLocked()).isFalse();
+    pool.release(client);
+  }
+
+  @Test
+  public void shouldFailScheduledConnectionWhenRefusedAfterRetries() throws Exception {
+    scheduler = new ConnectionScheduler(10, 1);
+    scheduler.setMaxRetries(2);
+    scheduler.setBackoffMillis(10, 20);
+    int closedPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      closedPort = socket.getLocalPort();
+    }
+    TerminalClient client = new TerminalClient(2, new ScreenDimensions(24, 80));
+    try {
+      assertThatThrownBy(() -> scheduler.connect(client, "localhost", closedPort)
+          .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(ConnectException.class);
+    } finally {
+      client.disconnect();
+    }
+  }
+
+  @Test
+  public void shouldSpaceConnectionStartsAndLimitInFlightWhenConnectingWithScheduler()
+      throws Exception {
+    List<Long> startNanos = connectScheduledClients(MAX_CONNECTIONS, 1);
+    assertThat(maxStartInFlight.get()).isEqualTo(1);
+    assertThat(getStartGapsMillis(startNanos))
+        .allMatch(gap -> gap >= MIN_CONNECTS_GAP_MILLIS);
+  }
+
+  private List<Long> connectScheduledClients(int count, int maxInFlight) throws Exception {
+    scheduler = new ConnectionScheduler(CONNECTS_PER_SECOND, maxInFlight);
+    List<Long> startNanos = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<Void>> connections = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      TerminalClient client = new TerminalClient(2, new ScreenDimensions(24, 80)) {
+        @Override
+        void connect(String host, int port, ConnectionListener connectionListener) {
+          startNanos.add(System.nanoTime());
+          maxStartInFlight.accumulateAndGet(scheduler.getInFlightCount(), Math::max);
+          super.connect(host, port, connectionListener);
+        }
+      };
+      clients.add(client);
+      connections.add(scheduler.connect(client, "localhost", service.getPort()));
+    }
+    for (CompletableFuture<Void> connection : connections) {
+      connection.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+    }
+    return startNanos;
+  }
+
+  private List<Long> getStartGapsMillis(List<Long> startNanos) {
+    List<Long> ret = new ArrayList<>();
+    for (int i = 1; i < startNanos.size(); i++) {
+      ret.add(TimeUnit.NANOSECONDS.toMillis(startNanos.get(i) - startNanos.get(i - 1)));
+    }
+    return ret;
+  }
+
+  @Test
+  public void shouldStartConnectionsAtSchedulerRateWhenConnectingWithoutInFlightLimit()
+      throws Exception {
+    List<Long> startNanos = connectScheduledClients(MAX_CONNECTIONS, MAX_CONNECTIONS);
+    assertThat(getStartGapsMillis(startNanos))
+        .allMatch(gap -> gap >= MIN_CONNECTS_GAP_MILLIS && gap < MAX_CONNECTS_GAP_MILLIS);
+  }
+
+  @Test
+  public void shouldNotifyClientListenerWhenSchedulerClosedWithPendingConnection()
+      throws Exception {
+    scheduler = new ConnectionScheduler(CONNECTS_PER_SECOND, 1);
+    TerminalClient connecting = new TerminalClient(2, new ScreenDimensions(24, 80));
+    clients.add(connecting);
+    scheduler.connect(connecting, "localhost", service.getPort());
+    TerminalClient pending = new TerminalClient(2, new ScreenDimensions(24, 80));
+    clients.add(pending);
+    CompletableFuture<Exception> notifiedException = new CompletableFuture<>();
+    pending.addConnectionListener(new ConnectionListener() {
+      @Override
+      public void onConnection() {
+      }
+
+      @Override
+      public void onException(Exception ex) {
+        notifiedException.complete(ex);
+      }
+
+      @Override
+      public void onConnectionClosed() {
+      }
+    });
+    CompletableFuture<Void> pendingConnection = scheduler.connect(pending, "localhost",
+        service.getPort());
+    scheduler.close();
+    assertThat(notifiedException.get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+        .isInstanceOf(CancellationException.class);
+    assertThat(pendingConnection).isCompletedExceptionally();
+  }
+
+  @Test
+  public void shouldCancelScheduledConnectionWhenSchedulerClosedWhileWaitingRetry()
+      throws Exception {
+    scheduler = new ConnectionScheduler(10, 1);
+    scheduler.setBackoffMillis(TIMEOUT_MILLIS, TIMEOUT_MILLIS);
+    int closedPort;
+    try (ServerSocket socket = new ServerSocket(0)) {
+      closedPort = socket.getLocalPort();
+    }
+    TerminalClient client = new TerminalClient(2, new ScreenDimensions(24, 80));
+    clients.add(client);
+    CompletableFuture<Void> connection = scheduler.connect(client, "localhost", closedPort);
+    long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+    while (scheduler.getInFlightCount() > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    scheduler.close();
+    assertThatThrownBy(() -> connection.get(TIMEOUT_MILLIS / 2, TimeUnit.MILLISECONDS))
+        .isInstanceOf(CancellationException.class);
+  }
+
+}
@@ -1,19 +1,27 @@
 package com.bytezone.dm3270;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.bytezone.dm3270.attributes.ColorAttribute;
 import com.bytezone.dm3270.attributes.StartFieldAttribute;
 import com.bytezone.dm3270.commands.AIDCommand;
 import com.bytezone.dm3270.display.Field;
 import com.bytezone.dm3270.display.Screen;
+import com.bytezone.dm3270.display.ScreenClassifier;
 import com.bytezone.dm3270.display.ScreenContext;
+import com.bytezone.dm3270.display.ScreenCoordinates;
 import com.bytezone.dm3270.display.ScreenDimensions;
 import com.bytezone.dm3270.display.ScreenPosition;
+import com.bytezone.dm3270.display.ScreenSnapshot;
+import com.bytezone.dm3270.display.ScreenTemplate;
+import com.bytezone.dm3270.scraping.PagedScraper;
+import com.bytezone.dm3270.scraping.TableLayout;
 import com.google.common.base.Charsets;
 import com.google.common.io.Resources;
 import java.awt.Point;
@@ -24,13 +32,19 @@ import java.security.GeneralSecurityException;
 import java.security.SecureRandom;
 import java.security.cert.X509Certificate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.TrustManager;
 import javax.net.ssl.X509TrustManager;
@@ -170,6 +184,119 @@ public class TerminalClientTest {
         .isEqualTo(getWelcomeScreen());
   }
 
+  @Test
+  public void shouldGetWelcomeScreenFromSnapshotWhenConnect() throws Exception {
+    awaitKeyboardUnlock();
+    assertThat(client.getScreenSnapshot().getText().replace('\u0000', ' '))
+        .isEqualTo(getWelcomeScreen());
+  }
+
+  @Test
+  public void shouldGetNoChangedRowsWhenGetChangesSinceCurrentSnapshotGeneration()
+      throws Exception {
+    awaitKeyboardUnlock();
+    ScreenSnapshot snapshot = client.getScreenSnapshot();
+    assertThat(snapshot.getChangesSince(snapshot.getGeneration())).isEmpty();
+  }
+
+  @Test
+  public void shouldGetUserFieldRowWhenGetChangesSinceSnapshotBeforeSettingUserField()
+      throws Exception {
+    awaitKeyboardUnlock();
+    long generation = client.getScreenSnapshot().getGeneration();
+    client.setFieldTextByCoord(1, 27, USERNAME);
+    assertThat(client.getScreenSnapshot().getChangesSince(generation))
+        .extracting(ScreenSnapshot.Row::getRow)
+        .containsExactly(1);
+  }
+
+  @Test
+  public void shouldGetFirstPageRowsWhenScrapeAndFirstPageHasEndMarker() throws Exception {
+    awaitKeyboardUnlock();
+    TableLayout layout = new TableLayout(1, SCREEN_DIMENSIONS.rows);
+    layout.addColumn("line", 1, SCREEN_DIMENSIONS.columns);
+    PagedScraper scraper = new PagedScraper(client, layout);
+    scraper.setEndMarker("ENTER USERID");
+    List<String> lines = new ArrayList<>();
+    scraper.scrape(row -> lines.add(row.getText("line")));
+    assertThat(lines).containsExactly("AAAAAAAAA ENTER USERID -");
+  }
+
+  @Test
+  public void shouldGetAllPagesRowsWhenScrapeUntilRepeatedPage() throws Exception {
+    List<String> items = new ArrayList<>();
+    int sentPf8s = scrapePagedList("/paged-list.yml", 0, items);
+    assertThat(items).containsExactly("ITEM 01", "ITEM 02", "ITEM 03", "ITEM 04", "ITEM 05");
+    assertThat(sentPf8s).isEqualTo(3);
+  }
+
+  private int scrapePagedList(String flow, int maxPages, List<String> items) throws Exception {
+    cleanShutdown();
+    startServiceWithFlow(flow);
+    AtomicInteger sentPf8s = new AtomicInteger();
+    client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS) {
+      @Override
+      public CompletableFuture<Void> sendAIDAsync(byte aid, String name) {
+        if (aid == AIDCommand.AID_PF8) {
+          sentPf8s.incrementAndGet();
+        }
+        return super.sendAIDAsync(aid, name);
+      }
+    };
+    connectClient();
+    awaitKeyboardUnlock();
+    TableLayout layout = new TableLayout(3, SCREEN_DIMENSIONS.rows);
+    layout.addColumn("item", 1, 20);
+    PagedScraper scraper = new PagedScraper(client, layout);
+    scraper.setMaxPages(maxPages);
+    // second page is sent in two writes
+    scraper.setStablePeriodMillis(500);
+    scraper.scrape(row -> items.add(row.getText("item")));
+    return sentPf8s.get();
+  }
+
+  @Test
+  public void shouldGetFirstPagesRowsWhenScrapeWithMaxPages() throws Exception {
+    List<String> items = new ArrayList<>();
+    int sentPf8s = scrapePagedList("/paged-list.yml", 2, items);
+    assertThat(items).containsExactly("ITEM 01", "ITEM 02", "ITEM 03", "ITEM 04");
+    assertThat(sentPf8s).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldGetFirstPageRowsWhenScrapeAndNextPageIsEmpty() throws Exception {
+    List<String> items = new ArrayList<>();
+    int sentPf8s = scrapePagedList("/paged-list-empty-end.yml", 0, items);
+    assertThat(items).containsExactly("ITEM 01", "ITEM 02");
+    assertThat(sentPf8s).isEqualTo(1);
+  }
+
+  @Test
+  public void shouldGetServerAndClientRecordsWhenDumpTraceAfterConnect() throws Exception {
+    awaitKeyboardUnlock();
+    assertThat(client.dumpTrace()).contains(" SERVER ", " CLIENT ");
+  }
+
+  @Test
+  public void shouldGetClientRecordsWhenDumpTraceAfterSettingTraceSizeWhileConnected()
+      throws Exception {
+    awaitKeyboardUnlock();
+    client.setTraceSize(4);
+    sendUserFieldByCoord();
+    awaitKeyboardUnlock();
+    assertThat(client.dumpTrace()).contains(" CLIENT ");
+  }
+
+  @Test
+  public void shouldGetEmptyTraceWhenDumpTraceAfterDisablingTraceWhileConnected()
+      throws Exception {
+    awaitKeyboardUnlock();
+    client.setTraceSize(0);
+    sendUserFieldByCoord();
+    awaitKeyboardUnlock();
+    assertThat(client.dumpTrace()).isEmpty();
+  }
+
   private String getWelcomeScreen() throws IOException {
     return getFileContent("login-welcome-screen.txt");
   }
@@ -200,6 +327,125 @@ public class TerminalClientTest {
         .isEqualTo(getFileContent("login-special-character-charset-CP1147.txt"));
   }
 
+  @Test
+  public void shouldGetWelcomeScreenWhenConnectWithAsyncEventDispatcher() throws Exception {
+    cleanShutdown();
+    ExecutorService listenersExecutor = Executors.newCachedThreadPool();
+    try {
+      startServiceWithFlow("/login.yml");
+      client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+      client.setEventDispatcher(new EventDispatcher(listenersExecutor, 100,
+          EventDispatcher.OverflowPolicy.BLOCK));
+      connectClient();
+      awaitKeyboardUnlock();
+      assertThat(getScreenText())
+          .isEqualTo(getWelcomeScreen());
+    } finally {
+      listenersExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldGetWelcomeScreenWhenListenerUsesClientWithFullBlockingEventDispatcher()
+      throws Exception {
+    cleanShutdown();
+    ExecutorService listenersExecutor = Executors.newCachedThreadPool();
+    try {
+      startServiceWithFlow("/login.yml");
+      client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+      client.setEventDispatcher(new EventDispatcher(listenersExecutor, 1,
+          EventDispatcher.OverflowPolicy.BLOCK));
+      client.addScreenChangeListener(screenWatcher -> client.getTerminalColorAt(1, 1));
+      connectClient();
+      awaitKeyboardUnlock();
+      assertThat(getScreenText())
+          .isEqualTo(getWelcomeScreen());
+    } finally {
+      listenersExecutor.shutdown();
+    }
+  }
+
+  @Test
+  public void shouldGetFewerEventsAndSameScreenWhenConnectWithScreenChangesCoalescing()
+      throws Exception {
+    cleanShutdown();
+    EventCounts uncoalescedCounts = countEventsUntilWelcomeScreen(false);
+    cleanShutdown();
+    EventCounts coalescedCounts = countEventsUntilWelcomeScreen(true);
+    assertThat(coalescedCounts.screenChanges.get())
+        .isLessThan(uncoalescedCounts.screenChanges.get());
+    assertThat(coalescedCounts.keyboardChanges.get())
+        .isLessThan(uncoalescedCounts.keyboardChanges.get());
+  }
+
+  private EventCounts countEventsUntilWelcomeScreen(boolean coalescing) throws Exception {
+    startServiceWithFlow("/login-burst.yml");
+    client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+    client.setScreenChangesCoalescing(coalescing);
+    client.setScreenChangesQuietPeriodMillis(50);
+    EventCounts counts = new EventCounts();
+    client.addScreenChangeListener(screenWatcher -> counts.screenChanges.incrementAndGet());
+    client.addKeyboardStatusListener(evt -> counts.keyboardChanges.incrementAndGet());
+    connectClient();
+    awaitKeyboardUnlock();
+    assertThat(getScreenText()).isEqualTo(getWelcomeScreen());
+    return counts;
+  }
+
+  private static class EventCounts {
+
+    private final AtomicInteger screenChanges = new AtomicInteger();
+    private final AtomicInteger keyboardChanges = new AtomicInteger();
+
+  }
+
+  @Test
+  public void shouldGetSameScreenAndColorsWhenConnectWithTextOnly() throws Exception {
+    awaitKeyboardUnlock();
+    List<java.awt.Color> colors = getScreenColors();
+    cleanShutdown();
+    startServiceWithFlow("/login.yml");
+    client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+    client.setTextOnly(true);
+    connectClient();
+    awaitKeyboardUnlock();
+    assertThat(getScreenText()).isEqualTo(getWelcomeScreen());
+    assertThat(getScreenColors()).isEqualTo(colors);
+  }
+
+  @Test
+  public void shouldGetMatchingTemplateWhenClassifyWelcomeScreen() throws Exception {
+    ScreenClassifier classifier = new ScreenClassifier();
+    ScreenTemplate logon = new ScreenTemplate("logon");
+    logon.addField(1, 2, 24, false);
+    logon.addLiteral(1, 12, "LOGON");
+    classifier.addTemplate(logon);
+    ScreenTemplate menu = new ScreenTemplate("menu");
+    menu.addField(1, 2, 24, true);
+    classifier.addTemplate(menu);
+    ScreenTemplate welcome = new ScreenTemplate("welcome");
+    welcome.addField(1, 2, 24, false);
+    welcome.addLiteral(1, 12, "ENTER USERID");
+    classifier.addTemplate(welcome);
+    cleanShutdown();
+    startServiceWithFlow("/login.yml");
+    client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+    client.setScreenClassifier(classifier);
+    connectClient();
+    awaitKeyboardUnlock();
+    assertThat(client.getScreenTemplate()).contains(welcome);
+  }
+
+  private List<java.awt.Color> getScreenColors() {
+    List<java.awt.Color> colors = new ArrayList<>();
+    for (int row = 1; row <= SCREEN_DIMENSIONS.rows; row++) {
+      for (int column = 1; column <= SCREEN_DIMENSIONS.columns; column++) {
+        colors.add(client.getColorAt(row, column));
+      }
+    }
+    return colors;
+  }
+
   private void cleanShutdown() throws Exception {
     awaitKeyboardUnlock();
     teardown();
@@ -291,6 +537,28 @@ public class TerminalClientTest {
         .isEqualTo(getUserMenuScreen());
   }
 
+  @Test
+  public void shouldGetUserMenuScreenWhenSendUserFieldAsyncWithSharedSessionExecutor()
+      throws Exception {
+    cleanShutdown();
+    ExecutorService sessionsExecutor = Executors.newFixedThreadPool(1);
+    try {
+      startServiceWithFlow("/login.yml");
+      client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+      client.setSessionExecutor(new SessionExecutor(sessionsExecutor));
+      connectClient();
+      awaitKeyboardUnlock();
+      client.setFieldTextByCoordAsync(1, 27, USERNAME)
+          .thenCompose(r -> client.sendAIDAsync(AIDCommand.AID_ENTER, "ENTER"))
+          .get(TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+      awaitKeyboardUnlock();
+      assertThat(getScreenText())
+          .isEqualTo(getUserMenuScreen());
+    } finally {
+      sessionsExecutor.shutdown();
+    }
+  }
+
   private void sendUserFieldByCoord() {
     sendFieldByCoord(1, 27, USERNAME);
   }
@@ -300,6 +568,16 @@ public class TerminalClientTest {
     sendEnter();
   }
 
+  @Test
+  public void shouldGetUserMenuScreenWhenTypeUserFieldText() throws Exception {
+    awaitKeyboardUnlock();
+    client.setCursorPosition(26);
+    assertThat(client.typeText(USERNAME)).isEqualTo(USERNAME.length());
+    sendEnter();
+    awaitKeyboardUnlock();
+    assertThat(getScreenText()).isEqualTo(getUserMenuScreen());
+  }
+
   private String getUserMenuScreen() throws IOException {
     return getFileContent("user-menu-screen.txt");
   }
@@ -385,6 +663,26 @@ public class TerminalClientTest {
     assertThat(client.getCursorPosition()).isEqualTo(Optional.of(fieldPosition));
   }
 
+  @Test
+  public void shouldGetFieldCoordinatesWhenGetCursorCoordinatesAfterConnect() throws Exception {
+    awaitCursorPosition(new Point(1, 2));
+    assertThat(client.getCursorCoordinates()).isEqualTo(Optional.of(new ScreenCoordinates(2, 1)));
+  }
+
+  @Test
+  public void shouldGetSameColorWhenGetTerminalColorAndAwtColor() throws Exception {
+    awaitKeyboardUnlock();
+    assertThat(client.getTerminalColorAt(2, 1).getRgb())
+        .isEqualTo(client.getColorAt(2, 1).getRGB() & 0xFFFFFF);
+  }
+
+  @Test
+  public void shouldGetColorNameWhenGetNameOfAwtColorAt() throws Exception {
+    awaitKeyboardUnlock();
+    assertThat(ColorAttribute.getName(client.getColorAt(2, 1)))
+        .isEqualTo(client.getTerminalColorAt(2, 1).getLabel());
+  }
+
   private void awaitCursorPosition(Point position) throws InterruptedException, TimeoutException {
     CountDownLatch latch = new CountDownLatch(1);
     client.addCursorMoveListener((newPos, oldPos, field) -> {
@@ -453,6 +751,7 @@ public class TerminalClientTest {
   public void shouldGetCorrectFieldsWhenGetFields() throws Exception {
     when(screenMock.validate(anyInt())).thenAnswer(
         (Answer<Integer>) invocationOnMock -> (Integer) invocationOnMock.getArguments()[0]);
+    when(screenMock.getCharset()).thenReturn(Charset.CP1047);
     awaitKeyboardUnlock();
     sendUserFieldByCoord();
     awaitKeyboardUnlock();
@@ -681,6 +980,20 @@ public class TerminalClientTest {
     assertThat(getScreenText()).isEqualTo(getFileContent("sscplu-login-middle-screen"));
   }
 
+  @Test
+  public void shouldNotModifyScreenWhenNoScreenFieldsWhileSettingFieldsTextByInvalidLabel()
+      throws Exception {
+    setupSscpLuLoginFlow();
+    awaitKeyboardUnlock();
+    String screenText = getScreenText();
+    Map<String, String> fieldsText = new LinkedHashMap<>();
+    fieldsText.put("APPLICATION NAME", APP_NAME);
+    fieldsText.put("INVALID LABEL", "test");
+    assertThatThrownBy(() -> client.setFieldsTextByLabel(fieldsText))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThat(getScreenText()).isEqualTo(screenText);
+  }
+
   @Test
   public void shouldGetLoginSuccessScreenWhenEmptyInputByCord() throws Exception {
     setupFlowWithEmptyField();
@@ -735,6 +1048,127 @@ public class TerminalClientTest {
     assertThat(getFileContent("login-3278-M2-E-final-screen.txt")).isEqualTo(getScreenText());
   }
 
+  @Test
+  public void shouldGetSuccessScreenWhenSettingFieldsTextByLabel() throws Exception {
+    setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS,
+        "/login-3278-M2-E.yml");
+    awaitKeyboardUnlock();
+    Map<String, String> fieldsText = new LinkedHashMap<>();
+    fieldsText.put("Userid:", "testusr ");
+    fieldsText.put("Passcode:", "testpsw");
+    client.setFieldsTextByLabel(fieldsText);
+    sendEnterAndWaitKeyboardUnlock();
+    assertThat(getFileContent("login-3278-M2-E-final-screen.txt")).isEqualTo(getScreenText());
+  }
+
+  @Test
+  public void shouldGetSuccessScreenWhenSettingFieldsTextByCoord() throws Exception {
+    setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS,
+        "/login-3278-M2-E.yml");
+    awaitKeyboardUnlock();
+    Map<Point, String> fieldsText = new LinkedHashMap<>();
+    fieldsText.put(new Point(15, 12), "testusr ");
+    fieldsText.put(new Point(15, 13), "testpsw");
+    client.setFieldsTextByCoord(fieldsText);
+    assertThat(client.getCursorPosition()).contains(new Point(22, 13));
+    sendEnterAndWaitKeyboardUnlock();
+    assertThat(getFileContent("login-3278-M2-E-final-screen.txt")).isEqualTo(getScreenText());
+  }
+
+  @Test
+  public void shouldGetSuccessScreenWhenSettingFieldsTextByCoordinates() throws Exception {
+    setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS,
+        "/login-3278-M2-E.yml");
+    awaitKeyboardUnlock();
+    Map<ScreenCoordinates, String> fieldsText = new LinkedHashMap<>();
+    fieldsText.put(new ScreenCoordinates(12, 15), "testusr ");
+    fieldsText.put(new ScreenCoordinates(13, 15), "testpsw");
+    client.setFieldsTextByCoordinates(fieldsText);
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(13, 22));
+    sendEnterAndWaitKeyboardUnlock();
+    assertThat(getFileContent("login-3278-M2-E-final-screen.txt")).isEqualTo(getScreenText());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowIllegalArgumentExceptionWhenSettingFieldsTextByInvalidCoord()
+      throws Exception {
+    awaitKeyboardUnlock();
+    client.setFieldsTextByCoord(Collections.singletonMap(new Point(1, 0), "test"));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void shouldThrowIllegalArgumentExceptionWhenSettingFieldsTextByInvalidCoordinates()
+      throws Exception {
+    awaitKeyboardUnlock();
+    client.setFieldsTextByCoordinates(
+        Collections.singletonMap(new ScreenCoordinates(0, 1), "test"));
+  }
+
+  @Test
+  public void shouldSetFieldAfterWholeTextLabelWhenSetFieldTextByLabel() throws Exception {
+    setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS, "/login-3278-M2-E.yml");
+    awaitKeyboardUnlock();
+    client.setFieldTextByLabel("Passcode:", PASSWORD);
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(13, 22));
+  }
+
+  @Test
+  public void shouldSetFieldAfterTokenLabelWhenSetFieldTextByLabel() throws Exception {
+    setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS, "/login-3278-M2-E.yml");
+    awaitKeyboardUnlock();
+    client.setFieldTextByLabel("LOGOFF)", PASSWORD);
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(13, 22));
+  }
+
+  @Test
+  public void shouldSetFieldAfterSubstringLabelWhenSetFieldTextByLabel() throws Exception {
+    setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS, "/login-3278-M2-E.yml");
+    awaitKeyboardUnlock();
+    client.setFieldTextByLabel("Userid", USERNAME);
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(12, 22));
+  }
+
+  @Test
+  public void shouldSetFieldAfterFirstMatchOnScreenWhenLabelIsTokenOfLaterField()
+      throws Exception {
+    setupAmbiguousLabelsFlow();
+    client.setFieldTextByLabel("No:", "1");
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(1, 15));
+  }
+
+  private void setupAmbiguousLabelsFlow() throws Exception {
+    cleanShutdown();
+    startServiceWithFlow("/ambiguous-labels.yml");
+    client = new TerminalClient(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS);
+    connectClient();
+    awaitKeyboardUnlock();
+  }
+
+  @Test
+  public void shouldSetFieldAfterFirstMatchOnScreenWhenSetFieldsTextByLabel() throws Exception {
+    setupAmbiguousLabelsFlow();
+    client.setFieldsTextByLabel(Collections.singletonMap("No:", "1"));
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(1, 15));
+  }
+
+  @Test
+  public void shouldSetFieldsAfterIndexedAndSubstringLabelsWhenSetFieldsTextByLabel()
+      throws Exception {
+    setupAmbiguousLabelsFlow();
+    Map<String, String> fieldsText = new LinkedHashMap<>();
+    fieldsText.put("Order No:", "2");
+    fieldsText.put("Customer", "1");
+    client.setFieldsTextByLabel(fieldsText);
+    assertThat(getScreenText()).startsWith(" CustomerNo: 1          Order No: 2");
+  }
+
+  @Test
+  public void shouldSetFieldAfterLaterLabelWhenLabelIsWholeTextOfLaterField() throws Exception {
+    setupAmbiguousLabelsFlow();
+    client.setFieldTextByLabel("Order No:", "1");
+    assertThat(client.getCursorCoordinates()).contains(new ScreenCoordinates(1, 36));
+  }
+
   @Test
   public void shouldSuccessfullyLoginWhenAplScreen() throws Exception {
     setupExtendedFlow(TERMINAL_MODEL_TYPE_TWO, SCREEN_DIMENSIONS, "/login-apl-charset-screen.yml");